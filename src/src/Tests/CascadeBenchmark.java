@@ -0,0 +1,139 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfRect;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.objdetect.CascadeClassifier;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Compara o {@code detectMultiScale} direto (como no {@code testeImg} e no {@code Object}: imagem
+ * colorida, parâmetros padrão e um {@link MatOfRect} novo por chamada) com o {@link CascadeEngine}
+ * em 720p e 1080p, nos dois casos de imagem parada do projeto: faces em {@code images/reuniao.webp}
+ * e carros em {@code resources/street.jpg}.
+ * <p>
+ * Modos: {@code original}; {@code engine} com 1 e N threads (varredura completa com tiles); e
+ * {@code video}, a mesma imagem repetida como frames para medir o regime com busca só em volta das
+ * detecções anteriores. {@code recall} é a fração das caixas do original encontradas pelo modo
+ * (IoU ≥ 0,5). Resultado em {@code reports/cascade_benchmark.csv}.
+ *
+ * <pre>
+ * CascadeBenchmark [iterações] [threads]
+ * </pre>
+ */
+public class CascadeBenchmark {
+    static final String OUTPUT = "reports/cascade_benchmark.csv";
+    static final Size[] RESOLUTIONS = {new Size(1280, 720), new Size(1920, 1080)};
+
+    record Case(String name, String imagePath, String cascadePath) {
+    }
+
+    static final Case[] CASES = {
+            new Case("faces", "images/reuniao.webp", "resources/haarcascade_frontalface_default.xml"),
+            new Case("carros", "resources/street.jpg", "resources/cars.xml"),
+    };
+
+    public static void main(String[] args) throws IOException {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int openCvThreads = Core.getNumThreads();
+
+        List<String> rows = new ArrayList<>();
+        for (Case c : CASES) {
+            Mat original = Imgcodecs.imread(c.imagePath());
+            if (original.empty()) {
+                System.out.println("❌ Não foi possível carregar a imagem: " + c.imagePath());
+                continue;
+            }
+            for (Size resolution : RESOLUTIONS) {
+                Mat image = new Mat();
+                Imgproc.resize(original, image, resolution, 0, 0, Imgproc.INTER_LINEAR);
+                String label = c.name() + "@" + (int) resolution.height + "p";
+
+                Core.setNumThreads(openCvThreads);
+                CascadeClassifier classifier = new CascadeClassifier(c.cascadePath());
+                if (classifier.empty()) {
+                    System.out.println("❌ Erro ao carregar o classificador: " + c.cascadePath());
+                    break;
+                }
+                List<Rect> reference = new ArrayList<>();
+                rows.add(measure(label, "original", 1, iterations, reference, img -> {
+                    MatOfRect found = new MatOfRect();
+                    classifier.detectMultiScale(img, found);
+                    return Arrays.asList(found.toArray());
+                }, image, null));
+
+                for (int t : new int[]{1, threads}) {
+                    try (CascadeEngine engine = new CascadeEngine(c.cascadePath(), CascadeParams.defaults(), t)) {
+                        rows.add(measure(label, "engine", t, iterations, null, engine::detectImage, image, reference));
+                    }
+                    try (CascadeEngine engine = new CascadeEngine(c.cascadePath(), CascadeParams.defaults(), t)) {
+                        rows.add(measure(label, "video", t, iterations * 5, null, engine::detectFrame, image, reference));
+                    }
+                    Core.setNumThreads(openCvThreads);
+                    if (threads == 1) break;
+                }
+                image.release();
+            }
+            original.release();
+        }
+
+        if (rows.isEmpty()) return;
+        try (PrintWriter writer = new PrintWriter(new FileWriter(OUTPUT))) {
+            writer.println("case,mode,threads,medianMs,p95Ms,boxes,recall");
+            rows.forEach(writer::println);
+        }
+        System.out.println("Resultados salvos em " + OUTPUT);
+    }
+
+    /**
+     * @param keep      se não for nulo, recebe as caixas da última execução (a referência do recall)
+     * @param reference caixas do modo original; nulo no próprio original
+     */
+    private static String measure(String label, String mode, int threads, int iterations, List<Rect> keep,
+                                  Function<Mat, List<Rect>> detector, Mat image, List<Rect> reference) {
+        List<Rect> boxes = detector.apply(image); // aquecimento
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            boxes = detector.apply(image);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        double median = times[iterations / 2] / 1e6;
+        double p95 = times[Math.max(0, (int) Math.ceil(0.95 * iterations) - 1)] / 1e6;
+        double recall = reference == null ? 1.0 : recall(reference, boxes);
+        if (keep != null) keep.addAll(boxes);
+
+        System.out.printf(Locale.US, "%-12s %-8s %2d threads: mediana %7.1f ms | p95 %7.1f ms | %3d caixas | recall %.2f%n",
+                label, mode, threads, median, p95, boxes.size(), recall);
+        return String.format(Locale.US, "%s,%s,%d,%.2f,%.2f,%d,%.3f", label, mode, threads, median, p95, boxes.size(), recall);
+    }
+
+    static double recall(List<Rect> reference, List<Rect> found) {
+        if (reference.isEmpty()) return 1.0;
+        int matched = 0;
+        for (Rect r : reference) {
+            for (Rect f : found) {
+                double inter = CascadeEngine.intersection(r, f);
+                if (inter / (r.area() + f.area() - inter) >= 0.5) {
+                    matched++;
+                    break;
+                }
+            }
+        }
+        return (double) matched / reference.size();
+    }
+}
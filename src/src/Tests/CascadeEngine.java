@@ -0,0 +1,280 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfRect;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.objdetect.CascadeClassifier;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Detecção com {@link CascadeClassifier} (Haar/LBP) dividida em tarefas que rodam em paralelo.
+ * <p>
+ * Varredura completa: frames grandes são cortados em tiles de {@code tileSize} com
+ * {@code tileOverlap} de sobreposição, e nos tiles só se procuram objetos de até {@code tileOverlap}
+ * pixels, que sempre cabem inteiros em algum tile. Os objetos maiores são procurados numa tarefa à
+ * parte no frame inteiro com {@code minSize = tileOverlap}, ou seja, a pirâmide de escalas também é
+ * dividida. No modo vídeo ({@link #detectFrame}) só a vizinhança das detecções anteriores é
+ * procurada, numa faixa de tamanhos em volta do tamanho anterior, com a varredura completa a cada
+ * {@code fullSweepInterval} frames (ou quando não há nada sendo acompanhado). As caixas das tarefas
+ * são fundidas no final pela sobreposição.
+ * <p>
+ * O {@code CascadeClassifier} não é thread-safe: cada worker tem o seu, carregado do mesmo arquivo,
+ * e o seu {@link MatOfRect} de saída reaproveitado. O engine em si guarda o estado do vídeo: uma
+ * instância por stream.
+ */
+public class CascadeEngine implements AutoCloseable {
+    static final double ROI_MIN_SCALE = 0.7;
+    static final double ROI_MAX_SCALE = 1.4;
+
+    private record Task(Rect region, Size minSize, Size maxSize) {
+    }
+
+    private static final class Worker {
+        final CascadeClassifier classifier;
+        final MatOfRect found = NativeMats.track(new MatOfRect());
+
+        Worker(CascadeClassifier classifier) {
+            this.classifier = classifier;
+        }
+    }
+
+    private final CascadeParams params;
+    private final BlockingQueue<Worker> workers;
+    private final ExecutorService pool;     // null com uma thread: tudo roda na thread do chamador
+    private final Mat gray = NativeMats.track(new Mat());
+    private List<Rect> previous = new ArrayList<>();
+    private long frames, fullSweeps;
+
+    /**
+     * @param threads número de classificadores e de threads do pool
+     * @throws IOException se o arquivo do classificador não puder ser carregado
+     */
+    public CascadeEngine(String cascadePath, CascadeParams params, int threads) throws IOException {
+        this.params = params;
+        this.workers = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++) {
+            CascadeClassifier classifier = new CascadeClassifier(cascadePath);
+            if (classifier.empty()) throw new IOException("Não foi possível carregar o classificador: " + cascadePath);
+            workers.add(new Worker(classifier));
+        }
+
+        if (threads > 1) {
+            // as tarefas já ocupam os núcleos; o paralelismo interno do OpenCV só disputaria com elas
+            Core.setNumThreads(1);
+            AtomicInteger ids = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "cascade-worker-" + ids.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            pool = null;
+        }
+    }
+
+    // ---------------- API ----------------
+
+    /** Imagem isolada: sempre a varredura completa, sem estado entre chamadas. */
+    public List<Rect> detectImage(Mat image) {
+        prepare(image);
+        return run(fullSweepTasks(gray.cols(), gray.rows()));
+    }
+
+    /**
+     * Frame de vídeo: procura em volta das detecções do frame anterior e varre o frame inteiro a cada
+     * {@code fullSweepInterval} frames. Um objeto que sai da sua região é perdido até a próxima varredura.
+     */
+    public List<Rect> detectFrame(Mat frame) {
+        prepare(frame);
+        boolean sweep = previous.isEmpty() || frames % params.fullSweepInterval == 0;
+        frames++;
+        if (sweep) fullSweeps++;
+        previous = run(sweep ? fullSweepTasks(gray.cols(), gray.rows()) : roiTasks(gray.cols(), gray.rows()));
+        return previous;
+    }
+
+    /** Frames do modo vídeo processados e quantos deles tiveram a varredura completa. */
+    public long frames() {
+        return frames;
+    }
+
+    public long fullSweeps() {
+        return fullSweeps;
+    }
+
+    // ---------------- Tarefas ----------------
+
+    private void prepare(Mat image) {
+        if (image.channels() == 1) image.copyTo(gray);
+        else Imgproc.cvtColor(image, gray, image.channels() == 4 ? Imgproc.COLOR_BGRA2GRAY : Imgproc.COLOR_BGR2GRAY);
+        if (params.equalize) Imgproc.equalizeHist(gray, gray);
+    }
+
+    private List<Task> fullSweepTasks(int cols, int rows) {
+        List<Task> tasks = new ArrayList<>();
+        Rect whole = new Rect(0, 0, cols, rows);
+        if (cols <= params.tileSize * 1.5 && rows <= params.tileSize * 1.5) {
+            tasks.add(new Task(whole, params.minSize, params.maxSize));
+            return tasks;
+        }
+
+        int overlap = params.tileOverlap;
+        Size tileMax = new Size(overlap, overlap);
+        if (!params.maxSize.empty() && params.maxSize.width < overlap) tileMax = params.maxSize;
+        for (int y : tileStarts(rows)) {
+            for (int x : tileStarts(cols)) {
+                Rect tile = new Rect(x, y, Math.min(params.tileSize, cols - x), Math.min(params.tileSize, rows - y));
+                tasks.add(new Task(tile, params.minSize, tileMax));
+            }
+        }
+
+        // objetos maiores que a sobreposição: frame inteiro, só as escalas grandes
+        if (params.maxSize.empty() || params.maxSize.width > overlap) {
+            Size largeMin = new Size(Math.max(overlap, params.minSize.width), Math.max(overlap, params.minSize.height));
+            tasks.add(new Task(whole, largeMin, params.maxSize));
+        }
+        return tasks;
+    }
+
+    /** Início dos tiles num eixo; o último encosta na borda para todos terem o tamanho cheio. */
+    private List<Integer> tileStarts(int length) {
+        List<Integer> starts = new ArrayList<>();
+        int step = params.tileSize - params.tileOverlap;
+        int start = 0;
+        while (start + params.tileSize < length) {
+            starts.add(start);
+            start += step;
+        }
+        starts.add(Math.max(0, length - params.tileSize));
+        return starts;
+    }
+
+    private List<Task> roiTasks(int cols, int rows) {
+        List<Task> tasks = new ArrayList<>(previous.size());
+        for (Rect box : previous) {
+            int margin = (int) Math.round(params.roiMargin * Math.max(box.width, box.height));
+            int x = Math.max(0, box.x - margin), y = Math.max(0, box.y - margin);
+            Rect region = new Rect(x, y,
+                    Math.min(cols, box.x + box.width + margin) - x,
+                    Math.min(rows, box.y + box.height + margin) - y);
+
+            Size min = new Size(Math.max(params.minSize.width, box.width * ROI_MIN_SCALE),
+                    Math.max(params.minSize.height, box.height * ROI_MIN_SCALE));
+            Size max = new Size(box.width * ROI_MAX_SCALE, box.height * ROI_MAX_SCALE);
+            if (!params.maxSize.empty()) {
+                max = new Size(Math.min(max.width, params.maxSize.width), Math.min(max.height, params.maxSize.height));
+            }
+            tasks.add(new Task(region, min, max));
+        }
+        return tasks;
+    }
+
+    // ---------------- Execução ----------------
+
+    private List<Rect> run(List<Task> tasks) {
+        List<Rect> boxes = new ArrayList<>();
+        if (pool == null || tasks.size() == 1) {
+            for (Task task : tasks) detect(task, boxes);
+            return merge(boxes, params.mergeOverlap);
+        }
+
+        List<Future<List<Rect>>> futures = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            futures.add(pool.submit(() -> {
+                List<Rect> found = new ArrayList<>();
+                detect(task, found);
+                return found;
+            }));
+        }
+        for (Future<List<Rect>> future : futures) {
+            try {
+                boxes.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            }
+        }
+        return merge(boxes, params.mergeOverlap);
+    }
+
+    private void detect(Task task, List<Rect> out) {
+        Worker worker = borrow();
+        Mat region = gray.submat(task.region());
+        try {
+            worker.classifier.detectMultiScale(region, worker.found, params.scaleFactor, params.minNeighbors, 0,
+                    task.minSize(), task.maxSize());
+            for (Rect r : worker.found.toArray()) {
+                out.add(new Rect(r.x + task.region().x, r.y + task.region().y, r.width, r.height));
+            }
+        } finally {
+            region.release();
+            workers.add(worker);
+        }
+    }
+
+    private Worker borrow() {
+        try {
+            return workers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Funde caixas repetidas entre tarefas (mesmo objeto visto por dois tiles, ou pelo tile e pela
+     * tarefa das escalas grandes): da maior para a menor, uma caixa é descartada se a interseção com
+     * uma já mantida cobre mais de {@code overlap} da área da menor das duas.
+     */
+    static List<Rect> merge(List<Rect> boxes, double overlap) {
+        boxes.sort(Comparator.comparingDouble(Rect::area).reversed());
+        List<Rect> kept = new ArrayList<>(boxes.size());
+        for (Rect box : boxes) {
+            boolean duplicate = false;
+            for (Rect k : kept) {
+                if (intersection(box, k) > overlap * Math.min(box.area(), k.area())) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) kept.add(box);
+        }
+        return kept;
+    }
+
+    static double intersection(Rect a, Rect b) {
+        int x1 = Math.max(a.x, b.x), y1 = Math.max(a.y, b.y);
+        int x2 = Math.min(a.x + a.width, b.x + b.width), y2 = Math.min(a.y + a.height, b.y + b.height);
+        return (double) Math.max(0, x2 - x1) * Math.max(0, y2 - y1);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Worker worker : workers) NativeMats.release(worker.found);
+        NativeMats.release(gray);
+    }
+}
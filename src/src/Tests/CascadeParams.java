@@ -0,0 +1,61 @@
+import org.opencv.core.Size;
+
+/**
+ * Parâmetros do {@code detectMultiScale} e da busca do {@link CascadeEngine}.
+ * <p>
+ * Imutável; os {@code with...} devolvem uma cópia com um campo trocado.
+ */
+public class CascadeParams {
+    final double scaleFactor;
+    final int minNeighbors;
+    final Size minSize;
+    final Size maxSize;          // vazio: sem limite
+    final boolean equalize;      // equalizeHist no cinza antes de detectar
+
+    final int tileSize;          // lado do tile; frames menores que 1,5 tile não são divididos
+    final int tileOverlap;       // objetos até esse tamanho nunca são cortados por um tile
+    final double roiMargin;      // margem em volta de uma detecção anterior, em frações do seu tamanho
+    final int fullSweepInterval; // a cada quantos frames o frame inteiro é varrido no modo vídeo
+    final double mergeOverlap;   // interseção / área da menor caixa acima da qual duas caixas se fundem
+
+    public CascadeParams(double scaleFactor, int minNeighbors, Size minSize, Size maxSize, boolean equalize,
+                         int tileSize, int tileOverlap, double roiMargin, int fullSweepInterval, double mergeOverlap) {
+        if (tileOverlap >= tileSize) throw new IllegalArgumentException("Sobreposição deve ser menor que o tile: " + tileOverlap);
+        this.scaleFactor = scaleFactor;
+        this.minNeighbors = minNeighbors;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.equalize = equalize;
+        this.tileSize = tileSize;
+        this.tileOverlap = tileOverlap;
+        this.roiMargin = roiMargin;
+        this.fullSweepInterval = fullSweepInterval;
+        this.mergeOverlap = mergeOverlap;
+    }
+
+    /** Os padrões do {@code detectMultiScale(image, objects)} usados no {@code testeImg} e no {@code Object}. */
+    public static CascadeParams defaults() {
+        return new CascadeParams(1.1, 3, new Size(), new Size(), false, 640, 160, 0.5, 15, 0.6);
+    }
+
+    /** Os parâmetros do {@code testeWebcam}: cinza equalizado, 5 vizinhos e face mínima de 50x50. */
+    public static CascadeParams faces() {
+        return new CascadeParams(1.1, 5, new Size(50, 50), new Size(), true, 640, 160, 0.5, 15, 0.6);
+    }
+
+    public CascadeParams withTiles(int tileSize, int tileOverlap) {
+        return new CascadeParams(scaleFactor, minNeighbors, minSize, maxSize, equalize,
+                tileSize, tileOverlap, roiMargin, fullSweepInterval, mergeOverlap);
+    }
+
+    public CascadeParams withFullSweepInterval(int interval) {
+        return new CascadeParams(scaleFactor, minNeighbors, minSize, maxSize, equalize,
+                tileSize, tileOverlap, roiMargin, interval, mergeOverlap);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("scale=%.2f vizinhos=%d min=%dx%d tile=%d/%d", scaleFactor, minNeighbors,
+                (int) minSize.width, (int) minSize.height, tileSize, tileOverlap);
+    }
+}
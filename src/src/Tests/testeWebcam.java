@@ -1,14 +1,14 @@
 import org.opencv.core.Core;
 import org.opencv.core.Mat;
-import org.opencv.core.MatOfRect;
 import org.opencv.core.Rect;
 import org.opencv.core.Scalar;
-import org.opencv.core.Size;
 import org.opencv.imgproc.Imgproc;
-import org.opencv.objdetect.CascadeClassifier;
 import org.opencv.videoio.VideoCapture;
 import org.opencv.highgui.HighGui;
 
+import java.io.IOException;
+import java.util.List;
+
 public class testeWebcam {
     public static void main(String[] args) {
         // Carrega a biblioteca nativa do OpenCV
@@ -23,15 +23,17 @@ public class testeWebcam {
 
         // Caminho do classificador Haar
         String cascadePath = "resources/haarcascade_frontalface_default.xml";
-        CascadeClassifier faceDetector = new CascadeClassifier(cascadePath);
-
-        if (faceDetector.empty()) {
+        CascadeEngine faceDetector;
+        try {
+            // cinza equalizado, 5 vizinhos e face mínima de 50x50; busca em volta das faces do frame
+            // anterior e varre o frame inteiro a cada 15 frames
+            faceDetector = new CascadeEngine(cascadePath, CascadeParams.faces(), 1);
+        } catch (IOException e) {
             System.out.println("❌ Erro ao carregar o classificador: " + cascadePath);
             return;
         }
 
-        Mat frame = new Mat();
-        Mat grayFrame = new Mat();
+        Mat frame = NativeMats.track(new Mat());
 
         while (true) {
             if (!camera.read(frame) || frame.empty()) {
@@ -39,32 +41,17 @@ public class testeWebcam {
                 break;
             }
 
-            // Converte para escala de cinza (mais rápido)
-            Imgproc.cvtColor(frame, grayFrame, Imgproc.COLOR_BGR2GRAY);
-            Imgproc.equalizeHist(grayFrame, grayFrame); // normaliza iluminação
-
             // Detecta faces
-            MatOfRect faces = new MatOfRect();
-            faceDetector.detectMultiScale(
-                    grayFrame,
-                    faces,
-                    1.1,   // fator de escala
-                    5,     // vizinhos mínimos
-                    0,
-                    new Size(50, 50), // tamanho mínimo da face
-                    new Size()
-            );
-
-            Rect[] facesArray = faces.toArray();
+            List<Rect> faces = faceDetector.detectFrame(frame);
 
             // Desenha retângulos nas faces detectadas
-            for (Rect rect : facesArray) {
+            for (Rect rect : faces) {
                 Imgproc.rectangle(frame, rect.tl(), rect.br(), new Scalar(0, 255, 0), 2);
             }
 
             // Mostra contagem no canto superior esquerdo
             Imgproc.putText(frame,
-                    "Faces detectadas: " + facesArray.length,
+                    "Faces detectadas: " + faces.size(),
                     new org.opencv.core.Point(10, 30),
                     Imgproc.FONT_HERSHEY_SIMPLEX,
                     0.8,
@@ -83,6 +70,9 @@ public class testeWebcam {
 
         // Libera recursos
         camera.release();
+        faceDetector.close();
+        NativeMats.release(frame);
+        NativeMats.printReport();
         HighGui.destroyAllWindows();
     }
 }
@@ -0,0 +1,28 @@
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+
+/** Webcam local pelo índice do dispositivo. */
+public class CameraSource implements FrameSource {
+    private final int index;
+    private final VideoCapture camera;
+
+    public CameraSource(int index) {
+        this.index = index;
+        this.camera = HandDetector.createCamera(index);
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        return camera.read(frame) && !frame.empty();
+    }
+
+    @Override
+    public String name() {
+        return "camera " + index;
+    }
+
+    @Override
+    public void close() {
+        camera.release();
+    }
+}
@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Leitor do formato {@code .hcol} do {@link ColumnarWriter}. O arquivo é mapeado em memória (um
+ * mapeamento por grupo de linhas, então não há limite de 2 GB) e as agregações percorrem só os
+ * blocos das colunas pedidas, como arrays de primitivos: nenhum objeto por linha é criado.
+ *
+ * <pre>
+ * ColumnarReader arquivo.hcol [colunaDeGesto] [colunaDeFps]
+ * </pre>
+ */
+public class ColumnarReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final String[] names;
+    private final ColumnarWriter.Type[] types;
+    private final double[] scales;
+    private final String[][] dictionaries;
+    private final long[] groupOffsets;
+    private final int[] groupRows;
+    private final MappedByteBuffer[] groups;
+    private final int rowWidth;
+    private final long rowCount;
+
+    public ColumnarReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < 24) throw new IOException("Arquivo .hcol truncado: " + file);
+
+        ByteBuffer tail = map(size - 12, 12);
+        long footerOffset = tail.getLong();
+        if (tail.getInt() != ColumnarWriter.MAGIC) {
+            throw new IOException("Arquivo .hcol incompleto (escrita interrompida?): " + file);
+        }
+
+        ByteBuffer header = map(0, Math.min(size, footerOffset));
+        if (header.getInt() != ColumnarWriter.MAGIC) throw new IOException("Não é um arquivo .hcol: " + file);
+        int version = header.getInt();
+        if (version != ColumnarWriter.VERSION) throw new IOException("Versão .hcol não suportada: " + version);
+        int columns = header.getInt();
+        names = new String[columns];
+        types = new ColumnarWriter.Type[columns];
+        scales = new double[columns];
+        int width = 0;
+        for (int c = 0; c < columns; c++) {
+            names[c] = getUtf(header);
+            types[c] = ColumnarWriter.Type.values()[header.get()];
+            scales[c] = Math.pow(10, header.get());
+            width += types[c].width;
+        }
+        rowWidth = width;
+
+        ByteBuffer footer = map(footerOffset, size - 12 - footerOffset);
+        dictionaries = new String[columns][];
+        for (int c = 0; c < columns; c++) {
+            if (types[c] != ColumnarWriter.Type.DICT) continue;
+            dictionaries[c] = new String[footer.getInt()];
+            for (int i = 0; i < dictionaries[c].length; i++) dictionaries[c][i] = getUtf(footer);
+        }
+        int groupCount = footer.getInt();
+        groupOffsets = new long[groupCount];
+        groupRows = new int[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            groupOffsets[g] = footer.getLong();
+            groupRows[g] = footer.getInt();
+        }
+        rowCount = footer.getLong();
+        groups = new MappedByteBuffer[groupCount];
+    }
+
+    private MappedByteBuffer map(long offset, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static String getUtf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public String[] columnNames() {
+        return names.clone();
+    }
+
+    public ColumnarWriter.Type type(int column) {
+        return types[column];
+    }
+
+    /** Índice da coluna, ou -1 se não existir. */
+    public int columnIndex(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equals(name)) return c;
+        }
+        return -1;
+    }
+
+    private int require(String name) {
+        int column = columnIndex(name);
+        if (column < 0) throw new IllegalArgumentException("Coluna inexistente: " + name + " " + Arrays.toString(names));
+        return column;
+    }
+
+    /** Valores distintos de uma coluna DICT, na ordem dos códigos. */
+    public String[] dictionary(int column) {
+        if (types[column] != ColumnarWriter.Type.DICT) throw new IllegalArgumentException(names[column] + " não é DICT");
+        return dictionaries[column].clone();
+    }
+
+    // ---------------- Varredura ----------------
+
+    /** Bloco da coluna dentro do grupo, posicionado no início e já em little-endian. */
+    private ByteBuffer block(int group, int column) throws IOException {
+        if (groups[group] == null) {
+            groups[group] = map(groupOffsets[group], 4L + (long) groupRows[group] * rowWidth);
+        }
+        int offset = 4;
+        for (int c = 0; c < column; c++) offset += groupRows[group] * types[c].width;
+        return groups[group].slice(offset, groupRows[group] * types[column].width).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Valores crus de uma coluna INT32 ou FIXED32, ou os códigos de uma DICT. */
+    public void forEachInt(int column, IntConsumer action) throws IOException {
+        if (types[column] == ColumnarWriter.Type.FLOAT64) throw new IllegalArgumentException(names[column] + " é FLOAT64");
+        for (int g = 0; g < groups.length; g++) {
+            var values = block(g, column).asIntBuffer();
+            while (values.hasRemaining()) action.accept(values.get());
+        }
+    }
+
+    /** Valores numéricos de uma coluna INT32, FIXED32 (NaN para os nulos) ou FLOAT64. */
+    public void forEachDouble(int column, DoubleConsumer action) throws IOException {
+        if (types[column] == ColumnarWriter.Type.DICT) throw new IllegalArgumentException(names[column] + " é DICT");
+        double scale = scales[column];
+        for (int g = 0; g < groups.length; g++) {
+            ByteBuffer block = block(g, column);
+            if (types[column] == ColumnarWriter.Type.INT32) {
+                var values = block.asIntBuffer();
+                while (values.hasRemaining()) action.accept(values.get());
+            } else if (types[column] == ColumnarWriter.Type.FIXED32) {
+                var values = block.asIntBuffer();
+                while (values.hasRemaining()) {
+                    int v = values.get();
+                    action.accept(v == ColumnarWriter.NULL_FIXED ? Double.NaN : v / scale);
+                }
+            } else {
+                var values = block.asDoubleBuffer();
+                while (values.hasRemaining()) action.accept(values.get());
+            }
+        }
+    }
+
+    /** Coluna numérica inteira num array (8 bytes por linha). */
+    public double[] readDoubles(int column) throws IOException {
+        if (rowCount > Integer.MAX_VALUE - 8) throw new IllegalStateException("Linhas demais para um array: " + rowCount);
+        double[] values = new double[(int) rowCount];
+        int[] next = {0};
+        forEachDouble(column, v -> values[next[0]++] = v);
+        return values;
+    }
+
+    // ---------------- Agregações ----------------
+
+    /** Linhas por valor de uma coluna DICT (ex.: gesto), na ordem em que os valores apareceram. */
+    public Map<String, Long> valueCounts(String column) throws IOException {
+        int c = require(column);
+        long[] counts = new long[dictionary(c).length];
+        forEachInt(c, code -> counts[code]++);
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) result.put(dictionaries[c][i], counts[i]);
+        return result;
+    }
+
+    /** Percentis (0–1, vizinho mais próximo, como no {@link LatencyHistogram}) de uma coluna numérica. */
+    public double[] percentiles(String column, double... quantiles) throws IOException {
+        double[] values = readDoubles(require(column));
+        Arrays.sort(values);
+        double[] result = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            result[i] = values.length == 0 ? Double.NaN
+                    : values[Math.max(0, (int) Math.ceil(quantiles[i] * values.length) - 1)];
+        }
+        return result;
+    }
+
+    /** {min, média, máx} de uma coluna numérica, numa passada. */
+    public double[] summary(String column) throws IOException {
+        double[] acc = {Double.POSITIVE_INFINITY, 0, Double.NEGATIVE_INFINITY};
+        forEachDouble(require(column), v -> {
+            acc[0] = Math.min(acc[0], v);
+            acc[1] += v;
+            acc[2] = Math.max(acc[2], v);
+        });
+        acc[1] = rowCount == 0 ? Double.NaN : acc[1] / rowCount;
+        return acc;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Uso: ColumnarReader arquivo.hcol [colunaDeGesto] [colunaDeFps]");
+            return;
+        }
+        String gestureColumn = args.length > 1 ? args[1] : "gesture";
+        String fpsColumn = args.length > 2 ? args[2] : "fps";
+
+        long start = System.nanoTime();
+        try (ColumnarReader reader = new ColumnarReader(Paths.get(args[0]))) {
+            System.out.printf(Locale.US, "%d linhas, %d grupos, colunas %s%n", reader.rowCount(),
+                    reader.groups.length, Arrays.toString(reader.names));
+
+            if (reader.columnIndex(gestureColumn) >= 0) {
+                System.out.println("Contagem por " + gestureColumn + ":");
+                reader.valueCounts(gestureColumn).forEach((gesture, count) -> System.out.printf(Locale.US,
+                        "  %-14s %8d (%.1f%%)%n", gesture, count, 100.0 * count / reader.rowCount()));
+            }
+            if (reader.columnIndex(fpsColumn) >= 0) {
+                double[] p = reader.percentiles(fpsColumn, 0.01, 0.05, 0.50, 0.95);
+                double[] s = reader.summary(fpsColumn);
+                System.out.printf(Locale.US, "%s: p1=%.2f p5=%.2f p50=%.2f p95=%.2f | min=%.2f média=%.2f max=%.2f%n",
+                        fpsColumn, p[0], p[1], p[2], p[3], s[0], s[1], s[2]);
+            }
+        }
+        System.out.printf(Locale.US, "✅ Lido em %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,296 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Formato binário colunar ({@code .hcol}) para os mesmos dados do {@code batch_results.csv} e dos
+ * {@code performance*.csv}: cada coluna é um array de primitivos de largura fixa e as colunas de
+ * texto (gesto, arquivo) são codificadas por dicionário.
+ * <p>
+ * Colunas com casas decimais são gravadas em ponto fixo ({@code FIXED32}: inteiro de 32 bits vezes
+ * 10^-casas), metade do espaço de um double. O arredondamento é o mesmo do CSV
+ * ({@link MetricsWriter#round}, HALF_UP sobre a representação decimal), então o inteiro gravado são
+ * os dígitos do texto sem o ponto e a leitura devolve o double mais próximo do texto. Colunas
+ * {@code INT32} usam o mesmo arredondamento com 0 casas. Valores fora da faixa do int e NaN viram
+ * {@code Integer.MIN_VALUE}, lido como NaN.
+ * <p>
+ * As linhas são acumuladas em grupos de {@code ROWS_PER_GROUP}; cada grupo cheio é gravado de uma vez
+ * no {@link FileChannel}, coluna por coluna. Layout (little-endian):
+ * <pre>
+ * cabeçalho: "HCOL" versão:int colunas:int (nome:utf tipo:byte casas:byte)*
+ * grupo:     linhas:int (bloco da coluna)*        INT32/FIXED32/DICT = 4 bytes por linha, FLOAT64 = 8
+ * rodapé:    (entradas:int valor:utf*) por coluna DICT, grupos:int (offset:long linhas:int)*,
+ *            totalLinhas:long
+ * fim:       offsetDoRodapé:long "HCOL"
+ * </pre>
+ * {@code utf} é um short com o tamanho seguido dos bytes UTF-8. Lido pelo {@link ColumnarReader}.
+ * Não é thread-safe.
+ */
+public class ColumnarWriter implements AutoCloseable {
+    static final int MAGIC = 0x4C4F4348; // "HCOL" em little-endian
+    static final int VERSION = 1;
+    static final int ROWS_PER_GROUP = 64 * 1024;
+
+    public enum Type {
+        INT32(4), FIXED32(4), FLOAT64(8), DICT(4);
+
+        final int width;
+
+        Type(int width) {
+            this.width = width;
+        }
+    }
+
+    static final int NULL_FIXED = Integer.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final String[] names;
+    private final Type[] types;
+    private final int[] decimals;
+    private final ByteBuffer[] blocks;
+    private final List<Map<String, Integer>> codes = new ArrayList<>();
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private final List<long[]> groups = new ArrayList<>();   // {offset, linhas}
+    private int rows;
+    private long totalRows;
+
+    /** @param decimals casas de cada coluna FIXED32 (ignorado nas demais) */
+    public ColumnarWriter(Path file, String[] names, Type[] types, int[] decimals) throws IOException {
+        if (names.length != types.length || names.length != decimals.length) {
+            throw new IllegalArgumentException("Nomes, tipos e casas com tamanhos diferentes");
+        }
+        this.names = names.clone();
+        this.types = types.clone();
+        this.decimals = decimals.clone();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.blocks = new ByteBuffer[types.length];
+        for (int c = 0; c < types.length; c++) {
+            blocks[c] = ByteBuffer.allocate(ROWS_PER_GROUP * types[c].width).order(ByteOrder.LITTLE_ENDIAN);
+            codes.add(new HashMap<>());
+            dictionaries.add(new ArrayList<>());
+        }
+        writeHeader();
+    }
+
+    /** Mesmas colunas de um {@link MetricsWriter}: texto vira DICT, 0 casas INT32, o resto FIXED32. */
+    public static ColumnarWriter forCsvSchema(Path file, String header, int[] decimals) throws IOException {
+        return new ColumnarWriter(file, header.split(","), typesFor(decimals), decimals);
+    }
+
+    static Type[] typesFor(int[] decimals) {
+        Type[] types = new Type[decimals.length];
+        for (int c = 0; c < decimals.length; c++) {
+            types[c] = decimals[c] == MetricsWriter.TEXT ? Type.DICT : decimals[c] == 0 ? Type.INT32 : Type.FIXED32;
+        }
+        return types;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(names.length);
+        for (int c = 0; c < names.length; c++) {
+            header = ensure(putUtf(header, names[c]), 2);
+            header.put((byte) types[c].ordinal()).put((byte) Math.max(0, decimals[c]));
+        }
+        writeFully(header.flip());
+    }
+
+    // ---------------- Linhas ----------------
+
+    /** Valor de uma coluna INT32, FIXED32 ou FLOAT64, convertido para a representação dela. */
+    public ColumnarWriter putNumber(int column, double value) {
+        switch (types[column]) {
+            case INT32 -> blocks[column].putInt(scaled(value, 0));
+            case FIXED32 -> blocks[column].putInt(scaled(value, decimals[column]));
+            case FLOAT64 -> blocks[column].putDouble(value);
+            case DICT -> throw new IllegalArgumentException(names[column] + " é uma coluna de texto");
+        }
+        return this;
+    }
+
+    /** Dígitos do texto do CSV sem o ponto ({@link MetricsWriter#round}); NULL_FIXED se não couber num int. */
+    static int scaled(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return NULL_FIXED;
+        BigInteger digits = MetricsWriter.round(value, decimals).unscaledValue();
+        return digits.bitLength() < 32 && digits.intValue() != NULL_FIXED ? digits.intValue() : NULL_FIXED;
+    }
+
+    public ColumnarWriter putText(int column, String value) {
+        if (types[column] != Type.DICT) throw new IllegalArgumentException(names[column] + " é uma coluna numérica");
+        if (value == null) value = "";
+        Integer code = codes.get(column).get(value);
+        if (code == null) {
+            code = dictionaries.get(column).size();
+            codes.get(column).put(value, code);
+            dictionaries.get(column).add(value);
+        }
+        blocks[column].putInt(code);
+        return this;
+    }
+
+    /** Uma linha no formato do ring buffer do {@link MetricsWriter} (números e textos por coluna). */
+    void appendRow(double[] numbers, String[] texts, int base) throws IOException {
+        for (int c = 0; c < types.length; c++) {
+            if (types[c] == Type.DICT) putText(c, texts[base + c]);
+            else putNumber(c, numbers[base + c]);
+        }
+        endRow();
+    }
+
+    public void endRow() throws IOException {
+        rows++;
+        totalRows++;
+        for (int c = 0; c < blocks.length; c++) {
+            if (blocks[c].position() != rows * types[c].width) {
+                throw new IllegalStateException("Linha " + totalRows + " com colunas faltando ou repetidas");
+            }
+        }
+        if (rows == ROWS_PER_GROUP) flushGroup();
+    }
+
+    private void flushGroup() throws IOException {
+        if (rows == 0) return;
+        groups.add(new long[]{channel.position(), rows});
+        ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(rows);
+        writeFully(count.flip());
+        for (ByteBuffer block : blocks) {
+            writeFully(block.flip());
+            block.clear();
+        }
+        rows = 0;
+    }
+
+    // ---------------- Fim do arquivo ----------------
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushGroup();
+            long footerOffset = channel.position();
+            ByteBuffer footer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int c = 0; c < types.length; c++) {
+                if (types[c] != Type.DICT) continue;
+                footer = ensure(footer, 4);
+                footer.putInt(dictionaries.get(c).size());
+                for (String value : dictionaries.get(c)) footer = putUtf(footer, value);
+            }
+            footer = ensure(footer, 4 + groups.size() * 12 + 8 + 12);
+            footer.putInt(groups.size());
+            for (long[] group : groups) footer.putLong(group[0]).putInt((int) group[1]);
+            footer.putLong(totalRows);
+            footer.putLong(footerOffset).putInt(MAGIC);
+            writeFully(footer.flip());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static ByteBuffer putUtf(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) throw new IllegalArgumentException("Texto longo demais para o dicionário");
+        buffer = ensure(buffer, 2 + bytes.length);
+        return buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int extra) {
+        if (buffer.remaining() >= extra) return buffer;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        return bigger.put(buffer.flip());
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    // ---------------- Conversor ----------------
+
+    /**
+     * Converte um CSV no esquema do projeto ({@code batch_results.csv}, {@code performance*.csv}).
+     * Colunas desconhecidas são INT32, FLOAT64 ou DICT conforme o valor da primeira linha.
+     *
+     * @return número de linhas convertidas
+     */
+    public static long convertCsv(Path csv, Path out) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) throw new IOException("CSV vazio: " + csv);
+            String[] names = header.split(",");
+            String line = reader.readLine();
+            int[] decimals = new int[names.length];
+            String[] first = line == null ? new String[names.length] : line.split(",", -1);
+            for (int c = 0; c < names.length; c++) {
+                Integer known = CsvSchemas.decimalsOf(names[c]);
+                decimals[c] = known != null ? known : MetricsWriter.TEXT;
+            }
+            Type[] types = typesFor(decimals);
+            for (int c = 0; c < names.length; c++) {
+                if (CsvSchemas.decimalsOf(names[c]) == null) types[c] = inferType(first[c]);
+            }
+
+            long converted = 0;
+            try (ColumnarWriter writer = new ColumnarWriter(out, names, types, decimals)) {
+                for (; line != null; line = reader.readLine()) {
+                    if (line.isEmpty()) continue;
+                    String[] values = line.split(",", -1);
+                    if (values.length != names.length) {
+                        throw new IOException("Linha " + (converted + 2) + " com " + values.length + " colunas: " + line);
+                    }
+                    for (int c = 0; c < names.length; c++) {
+                        if (types[c] == Type.DICT) writer.putText(c, values[c]);
+                        else writer.putNumber(c, Double.parseDouble(values[c]));
+                    }
+                    writer.endRow();
+                    converted++;
+                }
+            }
+            return converted;
+        }
+    }
+
+    private static Type inferType(String value) {
+        if (value == null) return Type.DICT;
+        try {
+            Integer.parseInt(value);
+            return Type.INT32;
+        } catch (NumberFormatException e) {
+            try {
+                Double.parseDouble(value);
+                return Type.FLOAT64;
+            } catch (NumberFormatException notNumber) {
+                return Type.DICT;
+            }
+        }
+    }
+
+    /**
+     * Uso: ColumnarWriter entrada.csv [saida.hcol]
+     * Sem saída grava ao lado da entrada, trocando a extensão por {@code .hcol}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Uso: ColumnarWriter entrada.csv [saida.hcol]");
+            return;
+        }
+        Path csv = Paths.get(args[0]);
+        Path out = args.length > 1 ? Paths.get(args[1]) : Paths.get(args[0].replaceFirst("\\.csv$", "") + ".hcol");
+        long start = System.nanoTime();
+        long rows = convertCsv(csv, out);
+        System.out.printf(Locale.US, "✅ %d linhas: %s (%.1f KB) -> %s (%.1f KB) em %.2f s%n", rows,
+                csv, Files.size(csv) / 1024.0, out, Files.size(out) / 1024.0, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,222 @@
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfPoint;
+
+import java.util.Arrays;
+
+/**
+ * Geometria do contorno da mão sobre arrays primitivos.
+ * <p>
+ * O contorno é copiado uma única vez por frame para um {@code int[]} (x0, y0, x1, y1, ...) e as
+ * consultas (extremos, pontos mais altos, ângulos, distâncias, par mais próximo) são feitas em
+ * passagens simples, sem {@code Point} por vértice nem streams. Os buffers crescem conforme a
+ * necessidade e são reaproveitados entre frames; cada {@link FrameWorkspace} tem a sua instância.
+ */
+public class ContourGeometry {
+
+    int[] xy = new int[512];
+    int n;
+
+    int[] hullIdx = new int[128];
+    int hullSize;
+
+    int[] defects = new int[128];
+    int defectCount;
+
+    // Buffers do par mais próximo
+    private long[] keys = new long[0];
+    private int[] xs = new int[0], ys = new int[0], tmpX = new int[0], tmpY = new int[0],
+            stripX = new int[0], stripY = new int[0];
+
+    // ---------------- Carga ----------------
+
+    /** Copia os pontos do contorno (CV_32SC2) numa única chamada. */
+    ContourGeometry load(MatOfPoint contour) {
+        n = (int) contour.total();
+        if (xy.length < n * 2) xy = new int[n * 2];
+        if (n > 0) contour.get(0, 0, xy);
+        return this;
+    }
+
+    /** Copia os índices do convex hull (CV_32SC1). */
+    void loadHull(MatOfInt hull) {
+        hullSize = (int) hull.total();
+        if (hullIdx.length < hullSize) hullIdx = new int[hullSize];
+        if (hullSize > 0) hull.get(0, 0, hullIdx);
+    }
+
+    /** Copia os defeitos de convexidade (CV_32SC4: start, end, far, depth*256). */
+    void loadDefects(Mat defectsMat) {
+        defectCount = (int) defectsMat.total();
+        if (defects.length < defectCount * 4) defects = new int[defectCount * 4];
+        if (defectCount > 0) defectsMat.get(0, 0, defects);
+    }
+
+    /**
+     * Pontos do hull em sequência (x, y) dentro de {@code out}, prontos para {@code Mat.put}.
+     * @return o buffer usado (realocado se {@code out} for pequeno)
+     */
+    int[] hullPoints(int[] out) {
+        if (out.length < hullSize * 2) out = new int[hullSize * 2];
+        for (int i = 0; i < hullSize; i++) {
+            int p = hullIdx[i];
+            out[2 * i] = xy[2 * p];
+            out[2 * i + 1] = xy[2 * p + 1];
+        }
+        return out;
+    }
+
+    // ---------------- Consultas ----------------
+
+    int x(int i) {
+        return xy[2 * i];
+    }
+
+    int y(int i) {
+        return xy[2 * i + 1];
+    }
+
+    /** Menor y do contorno (ponto mais alto da imagem). */
+    int minY() {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) min = Math.min(min, xy[2 * i + 1]);
+        return min;
+    }
+
+    /**
+     * Índices dos dois pontos mais altos em uma passagem. Empates ficam com o índice menor,
+     * igual à ordenação estável que era usada antes.
+     */
+    long topTwo() {
+        int first = 0, second = -1;
+        for (int i = 1; i < n; i++) {
+            int y = xy[2 * i + 1];
+            if (y < xy[2 * first + 1]) {
+                second = first;
+                first = i;
+            } else if (second == -1 || y < xy[2 * second + 1]) {
+                second = i;
+            }
+        }
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    double dist(int i, int j) {
+        double dx = xy[2 * i] - xy[2 * j];
+        double dy = xy[2 * i + 1] - xy[2 * j + 1];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /** Ângulo em b (graus) do triângulo a-b-c, pela lei dos cossenos. */
+    double angle(int a, int b, int c) {
+        double ab = dist(a, b);
+        double bc = dist(b, c);
+        double ac = dist(a, c);
+        double angle = Math.acos((ab * ab + bc * bc - ac * ac) / (2 * ab * bc));
+        return Math.toDegrees(angle);
+    }
+
+    // ---------------- Par mais próximo ----------------
+
+    /**
+     * Menor distância entre dois pontos quaisquer, por divisão e conquista em O(n log n).
+     * As distâncias são comparadas ao quadrado em {@code long}, então o resultado é exatamente
+     * o mesmo da busca par a par com {@code Math.sqrt(dx * dx + dy * dy)}.
+     *
+     * @return a menor distância, ou {@code Double.MAX_VALUE} com menos de dois pontos
+     */
+    double closestPairDistance() {
+        if (n < 2) return Double.MAX_VALUE;
+        ensureScratch(n);
+
+        // Ordena por x empacotando (x, índice) num long, sem boxing
+        for (int i = 0; i < n; i++) keys[i] = ((long) xy[2 * i] << 32) | i;
+        Arrays.sort(keys, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            int p = (int) keys[i];
+            xs[i] = xy[2 * p];
+            ys[i] = xy[2 * p + 1];
+        }
+
+        return Math.sqrt(closestPair(0, n));
+    }
+
+    private void ensureScratch(int size) {
+        if (keys.length >= size) return;
+        keys = new long[size];
+        xs = new int[size];
+        ys = new int[size];
+        tmpX = new int[size];
+        tmpY = new int[size];
+        stripX = new int[size];
+        stripY = new int[size];
+    }
+
+    /**
+     * Resolve o intervalo [lo, hi) ordenado por x e o devolve ordenado por y (merge sort),
+     * retornando o quadrado da menor distância encontrada nele.
+     */
+    private long closestPair(int lo, int hi) {
+        if (hi - lo <= 3) {
+            long best = Long.MAX_VALUE;
+            for (int i = lo; i < hi; i++) {
+                for (int j = i + 1; j < hi; j++) best = Math.min(best, dist2(xs[i], ys[i], xs[j], ys[j]));
+            }
+            // insertion sort por y
+            for (int i = lo + 1; i < hi; i++) {
+                int x = xs[i], y = ys[i], j = i - 1;
+                while (j >= lo && ys[j] > y) {
+                    xs[j + 1] = xs[j];
+                    ys[j + 1] = ys[j];
+                    j--;
+                }
+                xs[j + 1] = x;
+                ys[j + 1] = y;
+            }
+            return best;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        long midX = xs[mid];
+        long best = Math.min(closestPair(lo, mid), closestPair(mid, hi));
+
+        // merge das duas metades por y
+        int i = lo, j = mid, k = lo;
+        while (i < mid || j < hi) {
+            if (j >= hi || (i < mid && ys[i] <= ys[j])) {
+                tmpX[k] = xs[i];
+                tmpY[k++] = ys[i++];
+            } else {
+                tmpX[k] = xs[j];
+                tmpY[k++] = ys[j++];
+            }
+        }
+        System.arraycopy(tmpX, lo, xs, lo, hi - lo);
+        System.arraycopy(tmpY, lo, ys, lo, hi - lo);
+
+        // faixa em torno da divisória: só vizinhos próximos em y podem melhorar o resultado
+        int strip = 0;
+        for (int p = lo; p < hi; p++) {
+            long dx = xs[p] - midX;
+            if (dx * dx < best) {
+                stripX[strip] = xs[p];
+                stripY[strip++] = ys[p];
+            }
+        }
+        for (int a = 0; a < strip; a++) {
+            for (int b = a + 1; b < strip; b++) {
+                long dy = (long) stripY[b] - stripY[a];
+                if (dy * dy >= best) break;
+                best = Math.min(best, dist2(stripX[a], stripY[a], stripX[b], stripY[b]));
+            }
+        }
+        return best;
+    }
+
+    private static long dist2(int x1, int y1, int x2, int y2) {
+        long dx = (long) x1 - x2;
+        long dy = (long) y1 - y2;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.List;
+
+/**
+ * Colunas e casas decimais dos CSVs de métricas ({@code performance*.csv}, {@code batch_results.csv},
+ * CSVs do {@link StreamEngine}), usadas pelo {@link MetricsWriter}, pelo {@link ColumnarWriter} e pelo
+ * conversor de CSV. Ficam aqui, sem dependência do OpenCV, para o conversor não carregar a biblioteca
+ * nativa e para os dois formatos não divergirem.
+ */
+final class CsvSchemas {
+
+    // mesmo formato do antigo printf do HandDetector
+    static final String FRAME_HEADER =
+            "frame,fingers,maxContourArea,centerX,centerY,convexDefects,avgAngle,fps,usedMemoryMB,cpuLoad,gesture,processedPixels,stableGesture,nativeMB";
+    static final int[] FRAME_DECIMALS = {0, 0, 2, 2, 2, 0, 2, 2, 2, 4, MetricsWriter.TEXT, 0, MetricsWriter.TEXT, 2};
+
+    static final String BATCH_HEADER = "file,fingers,maxContourArea,centerX,centerY,convexDefects,avgAngle,gesture";
+    static final int[] BATCH_DECIMALS = {MetricsWriter.TEXT, 0, 2, 2, 2, 0, 2, MetricsWriter.TEXT};
+
+    static final String STREAM_HEADER =
+            "frame,fingers,maxContourArea,centerX,centerY,convexDefects,avgAngle,fps,latencyMs,gesture,processedPixels,stableGesture,nativeMB";
+    static final int[] STREAM_DECIMALS = {0, 0, 2, 2, 2, 0, 2, 2, 3, MetricsWriter.TEXT, 0, MetricsWriter.TEXT, 2};
+
+    private static final List<String> HEADERS = List.of(FRAME_HEADER, BATCH_HEADER, STREAM_HEADER);
+    private static final List<int[]> DECIMALS = List.of(FRAME_DECIMALS, BATCH_DECIMALS, STREAM_DECIMALS);
+
+    private CsvSchemas() {
+    }
+
+    /**
+     * Casas decimais de uma coluna pelo nome, no primeiro esquema que a tem (a mesma coluna tem as
+     * mesmas casas em todos); null se nenhum esquema conhece a coluna.
+     */
+    static Integer decimalsOf(String column) {
+        for (int s = 0; s < HEADERS.size(); s++) {
+            String[] names = HEADERS.get(s).split(",");
+            for (int c = 0; c < names.length; c++) {
+                if (names[c].equals(column)) return DECIMALS.get(s)[c];
+            }
+        }
+        return null;
+    }
+}
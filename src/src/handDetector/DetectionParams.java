@@ -0,0 +1,57 @@
+/**
+ * Escala de processamento e limiares da detecção que dependem dela.
+ * <p>
+ * Os valores base foram calibrados na resolução de captura (escala 1). Com escala {@code s < 1} a
+ * segmentação e a análise do contorno rodam num frame reduzido e os limiares em pixels são ajustados:
+ * distâncias por {@code s} e áreas por {@code s²}. Os resultados (área, centro e desenhos) são
+ * convertidos de volta para as coordenadas do frame original.
+ */
+public class DetectionParams {
+    static final double BASE_MIN_AREA = 5000;
+    static final double BASE_APPROX_EPSILON = 3;
+    static final double BASE_MIN_DEFECT_DEPTH = 25;
+    static final double BASE_PEACE_MIN_DX = 40;
+    static final double BASE_OK_MAX_DIST = 50;
+
+    public static final DetectionParams DEFAULT = new DetectionParams(1.0);
+
+    final double scale;
+    final double minArea;
+    final double approxEpsilon;
+    final double minDefectDepth;
+    final double peaceMinDx;
+    final double okMaxDist;
+    final boolean skinLut;       // máscara de pele pela SkinClassifier em vez de cvtColor + inRange
+
+    public DetectionParams(double scale) {
+        this(scale, false);
+    }
+
+    public DetectionParams(double scale, boolean skinLut) {
+        if (scale <= 0 || scale > 1) throw new IllegalArgumentException("Escala deve estar em (0, 1]: " + scale);
+        this.scale = scale;
+        this.minArea = BASE_MIN_AREA * scale * scale;
+        this.approxEpsilon = BASE_APPROX_EPSILON * scale;
+        this.minDefectDepth = BASE_MIN_DEFECT_DEPTH * scale;
+        this.peaceMinDx = BASE_PEACE_MIN_DX * scale;
+        this.okMaxDist = BASE_OK_MAX_DIST * scale;
+        this.skinLut = skinLut;
+    }
+
+    boolean isScaled() {
+        return scale != 1.0;
+    }
+
+    int scaledCols(int cols) {
+        return isScaled() ? Math.max(1, (int) Math.round(cols * scale)) : cols;
+    }
+
+    int scaledRows(int rows) {
+        return isScaled() ? Math.max(1, (int) Math.round(rows * scale)) : rows;
+    }
+
+    @Override
+    public String toString() {
+        return scale + "x" + (skinLut ? "+lut" : "");
+    }
+}
@@ -0,0 +1,92 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+/**
+ * Análise de um stream frame a frame: porta de movimento, segmentação (com ROI), contornos,
+ * classificação e suavização do gesto, sempre sobre o mesmo {@link FrameWorkspace}.
+ * <p>
+ * Quando o {@link MotionGate} diz que nada se moveu, o frame só é espelhado e recebe o desenho do
+ * último resultado; o {@code ContourInfo} anterior é repetido sem rodar blur/YCrCb/morfologia/contornos.
+ * Os resultados do último frame ficam nos campos {@link #info}, {@link #stableGesture},
+ * {@link #processedPixels} e {@link #skipped}. Uma instância por stream, usada por uma thread por vez.
+ */
+public class FrameAnalyzer {
+    final FrameWorkspace workspace;
+    final RoiTracker roiTracker;
+    final GestureTracker gestures;
+    final MotionGate motionGate;
+
+    // Resultado do último analyze
+    ContourInfo info;
+    String stableGesture;
+    double processedPixels;
+    boolean skipped;
+
+    // Último frame que passou pela detecção completa
+    private int lastIndex = -1;
+    private ContourInfo lastInfo;
+
+    /**
+     * @param roiTracker ou {@code null} para sempre segmentar o frame inteiro
+     * @param gestures   ou {@code null} para usar o gesto de cada frame sem suavização
+     * @param motionGate ou {@code null} para analisar todos os frames
+     */
+    public FrameAnalyzer(DetectionParams params, RoiTracker roiTracker, GestureTracker gestures, MotionGate motionGate) {
+        this.workspace = new FrameWorkspace(params);
+        this.roiTracker = roiTracker;
+        this.gestures = gestures;
+        this.motionGate = motionGate;
+    }
+
+    void analyze(Mat frame, long sequence, long captureNanos, StageMetrics stages) {
+        long start = System.nanoTime();
+        skipped = motionGate != null && !motionGate.moved(frame);
+        if (motionGate != null) start = stages.lap(StageMetrics.Stage.MOTION_GATE, start);
+
+        if (skipped) {
+            Core.flip(frame, frame, 1);
+            processedPixels = 0;
+            info = null;
+            if (lastInfo != null) {
+                HandDetector.drawHand(frame, workspace, lastIndex);
+                info = new ContourInfo(lastInfo.fingerData, lastInfo.gesture, lastInfo.maxArea, lastInfo.cx,
+                        lastInfo.cy, lastInfo.convexDefects, frame);
+            }
+            stages.lap(StageMetrics.Stage.DRAW, start);
+        } else {
+            // dimensões na escala de processamento, onde a ROI e a máscara vivem
+            DetectionParams params = workspace.params;
+            int cols = params.scaledCols(frame.cols()), rows = params.scaledRows(frame.rows());
+            Rect roi = roiTracker != null ? roiTracker.next(cols, rows) : null;
+            processedPixels = roi != null ? roi.area() : (double) cols * rows;
+
+            HandDetector.processFrame(frame, workspace, roi);
+            start = stages.lap(StageMetrics.Stage.PREPROCESS, start);
+            int index = HandDetector.findLargestContourIndex(workspace);
+            if (roiTracker != null) roiTracker.update(workspace, index, cols, rows);
+            stages.lap(StageMetrics.Stage.CONTOURS, start);
+
+            if (gestures != null) {
+                info = gestures.analyze(frame, workspace, index, stages);
+            } else {
+                info = index != -1 ? HandDetector.analyzeHand(frame, workspace, index, stages) : null;
+            }
+            lastIndex = index;
+            lastInfo = info;
+        }
+
+        stableGesture = gestures != null ? gestures.update(info, sequence, captureNanos) : null;
+    }
+
+    /** Gesto para a tela: o estável quando há suavização, senão o do frame. */
+    String displayGesture() {
+        if (gestures == null) return info.gesture;
+        return stableGesture != null ? stableGesture : "...";
+    }
+
+    void release() {
+        workspace.release();
+        if (motionGate != null) motionGate.release();
+    }
+}
@@ -0,0 +1,11 @@
+import org.opencv.core.Mat;
+
+/** Destino dos frames já anotados: janela do HighGui ou nada (headless). */
+public interface FrameSink extends AutoCloseable {
+
+    /** @return false quando o usuário pediu para encerrar */
+    boolean show(Mat frame);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,37 @@
+import org.opencv.core.Mat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Origem dos frames do pipeline: câmera, arquivo de vídeo ou pasta de imagens.
+ * Implementações não são thread-safe; o pipeline lê sempre da mesma thread de captura.
+ */
+public interface FrameSource extends AutoCloseable {
+
+    /**
+     * Lê o próximo frame para dentro de {@code frame}, reaproveitando o buffer.
+     * @return false no fim da fonte ou em erro de leitura
+     */
+    boolean read(Mat frame);
+
+    /** Descrição curta para logs e relatórios. */
+    String name();
+
+    @Override
+    void close();
+
+    /**
+     * Abre uma fonte a partir da linha de comando: um número é o índice da câmera, uma pasta é uma
+     * sequência de imagens e qualquer outro caminho é aberto como vídeo pelo {@code VideoCapture}
+     * (inclusive padrões como {@code frames/img_%04d.jpg}).
+     */
+    static FrameSource open(String spec) throws IOException {
+        if (spec.matches("\\d+")) return new CameraSource(Integer.parseInt(spec));
+        Path path = Paths.get(spec);
+        if (Files.isDirectory(path)) return new ImageDirectorySource(path);
+        return new VideoFileSource(spec);
+    }
+}
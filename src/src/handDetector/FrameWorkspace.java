@@ -0,0 +1,98 @@
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfInt4;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mats intermediários e constantes do pré-processamento, reaproveitados entre frames.
+ * Os buffers do tamanho do frame (YCrCb, máscara, cópia reduzida, kernel) são alocados no primeiro
+ * frame de cada resolução e depois apenas reutilizados. Ainda há alocações pequenas por frame: o
+ * {@code findContours} cria um {@code MatOfPoint} novo por contorno, o hull e os defeitos realocam
+ * quando crescem e cada submat da ROI é um cabeçalho novo. Os buffers são registrados no
+ * {@link NativeMats}; as views de cada frame (submats da ROI) vêm do escopo de {@link #frameMats}.
+ * Não é thread-safe: cada thread de análise usa a sua própria instância.
+ */
+public class FrameWorkspace {
+    static final Size BLUR_SIZE = new Size(5, 5);
+    static final Scalar SKIN_LOWER = new Scalar(0, 133, 77);
+    static final Scalar SKIN_UPPER = new Scalar(255, 173, 127);
+    static final Point ANCHOR = new Point(-1, -1);
+
+    private static final ThreadLocal<FrameWorkspace> PER_THREAD = ThreadLocal.withInitial(FrameWorkspace::new);
+
+    final DetectionParams params;
+    final SkinClassifier skin;   // null: cvtColor + inRange
+
+    final Mat scaled = NativeMats.track(new Mat());
+    final Mat ycrcb = NativeMats.track(new Mat());
+    final Mat mask = NativeMats.track(new Mat());
+    final Mat hierarchy = NativeMats.track(new Mat());
+    final Mat kernel = NativeMats.track(Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(5, 5)));
+    final MatPool frameMats = new MatPool("FrameWorkspace.frameMats");
+
+    // Região segmentada no frame atual (null = frame inteiro)
+    Rect roi;
+
+    // Resultado do findContours do frame atual
+    final List<MatOfPoint> contours = new ArrayList<>();
+    double largestArea;
+
+    // Análise do contorno escolhido
+    final MatOfPoint2f contour2f = NativeMats.track(new MatOfPoint2f());
+    final MatOfPoint2f approxCurve = NativeMats.track(new MatOfPoint2f());
+    final MatOfPoint approxContour = NativeMats.track(new MatOfPoint());
+    final MatOfInt hull = NativeMats.track(new MatOfInt());
+    final MatOfPoint hullPoints = NativeMats.track(new MatOfPoint());
+    final List<MatOfPoint> hullList = List.of(hullPoints);
+    final MatOfPoint drawContour = NativeMats.track(new MatOfPoint());
+    final List<MatOfPoint> drawList = List.of(drawContour);
+    final MatOfInt4 defects = NativeMats.track(new MatOfInt4());
+    final ContourGeometry geometry = new ContourGeometry();
+    int[] hullBuffer = new int[256];
+
+    public FrameWorkspace() {
+        this(DetectionParams.DEFAULT);
+    }
+
+    public FrameWorkspace(DetectionParams params) {
+        this.params = params;
+        this.skin = params.skinLut ? new SkinClassifier(SKIN_LOWER, SKIN_UPPER) : null;
+    }
+
+    /** Workspace da thread atual, usado por {@code analyzeImage} (inclusive nos workers do lote). */
+    static FrameWorkspace forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    void clearContours() {
+        for (MatOfPoint contour : contours) contour.release();
+        contours.clear();
+        largestArea = 0;
+    }
+
+    public void release() {
+        clearContours();
+        NativeMats.release(scaled);
+        NativeMats.release(ycrcb);
+        NativeMats.release(mask);
+        NativeMats.release(hierarchy);
+        NativeMats.release(kernel);
+        NativeMats.release(contour2f);
+        NativeMats.release(approxCurve);
+        NativeMats.release(approxContour);
+        NativeMats.release(hull);
+        NativeMats.release(hullPoints);
+        NativeMats.release(drawContour);
+        NativeMats.release(defects);
+        frameMats.close();
+    }
+}
@@ -0,0 +1,83 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Confere que o {@link FrameWorkspace} reaproveita os buffers fixos entre frames: processa milhares de
+ * frames sintéticos (os mesmos do {@link NativeMemorySoak}) com {@code processFrame},
+ * {@code findLargestContourIndex} e {@code analyzeHand}, no frame inteiro e com a ROI do
+ * {@link RoiTracker}, e verifica depois do aquecimento que
+ * <ul>
+ *     <li>os buffers do tamanho do frame ({@code ycrcb}, {@code mask}, {@code kernel}) continuam no
+ *     mesmo endereço, ou seja, nunca foram realocados;</li>
+ *     <li>o número de Mats registrados no {@link NativeMats} não muda e os bytes vivos variam só o
+ *     tamanho dos buffers de contorno.</li>
+ * </ul>
+ * Não cobre o que não passa pelo {@link NativeMats}: os {@code MatOfPoint} que o {@code findContours}
+ * cria a cada frame (liberados no frame seguinte), a realocação do hull quando ele cresce e os
+ * cabeçalhos das submats da ROI. O crescimento total da memória do processo é medido pelo
+ * {@link NativeMemorySoak}.
+ * Sai com código 1 se alguma verificação falhar.
+ *
+ * <pre>
+ * FrameWorkspaceSelfTest [frames]
+ * </pre>
+ */
+public class FrameWorkspaceSelfTest {
+    static {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+    }
+
+    static final int WARMUP = 100;
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        boolean ok = run(frames, false) & run(frames, true);
+        System.out.println(ok ? "✅ Buffers fixos reaproveitados em todos os frames" : "❌ Buffers fixos realocados ou Mats registrados variando");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(int frames, boolean withRoi) {
+        FrameWorkspace ws = new FrameWorkspace();
+        RoiTracker tracker = withRoi ? new RoiTracker(30, 0.5) : null;
+        Mat frame = NativeMats.track(new Mat());
+        long[] addresses = null;
+        int baseCount = 0;
+        long baseBytes = 0, maxGrowth = 0;
+        int reallocations = 0, countChanges = 0, hands = 0;
+        try {
+            for (int n = 0; n < frames; n++) {
+                NativeMemorySoak.drawSyntheticHand(frame, n);
+                Rect roi = tracker != null ? tracker.next(frame.cols(), frame.rows()) : null;
+                HandDetector.processFrame(frame, ws, roi);
+                int index = HandDetector.findLargestContourIndex(ws);
+                if (tracker != null) tracker.update(ws, index, frame.cols(), frame.rows());
+                if (index != -1 && HandDetector.analyzeHand(frame, ws, index) != null) hands++;
+
+                long[] now = {ws.ycrcb.dataAddr(), ws.mask.dataAddr(), ws.kernel.dataAddr(), frame.dataAddr()};
+                long bytes = NativeMats.sample();
+                if (n + 1 == WARMUP) {
+                    addresses = now;
+                    baseCount = NativeMats.liveCount();
+                    baseBytes = bytes;
+                } else if (addresses != null) {
+                    if (!Arrays.equals(addresses, now)) reallocations++;
+                    if (NativeMats.liveCount() != baseCount) countChanges++;
+                    maxGrowth = Math.max(maxGrowth, bytes - baseBytes);
+                }
+            }
+        } finally {
+            ws.release();
+            NativeMats.release(frame);
+        }
+
+        boolean ok = reallocations == 0 && countChanges == 0 && maxGrowth <= NativeMemorySoak.NATIVE_SLACK_MB * 1024 * 1024;
+        System.out.printf(Locale.US, "%s %-12s %d frames (%d com mão): %d realocações, %d mudanças no nº de Mats (%d), +%.1f KB%n",
+                ok ? "✅" : "❌", withRoi ? "com ROI" : "frame inteiro", frames, hands, reallocations, countChanges,
+                baseCount, maxGrowth / 1024.0);
+        return ok;
+    }
+}
@@ -0,0 +1,202 @@
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+import java.util.function.Consumer;
+
+/**
+ * Camada temporal sobre a classificação por frame, uma instância por stream.
+ * <p>
+ * Os últimos {@code window} gestos ficam num buffer circular fixo e o gesto estável só muda por
+ * votação com histerese: um gesto entra quando aparece em pelo menos {@code enterVotes} frames da
+ * janela e só sai quando cai abaixo de {@code exitVotes} (ou quando outro gesto atinge
+ * {@code enterVotes}). Cada mudança gera um {@link Event} de entrada/saída com o instante da
+ * captura, então quem consome não precisa filtrar o "Peace/Rock/3 Fingers" que pisca frame a frame.
+ * <p>
+ * {@link #analyze} também evita reclassificar quando o contorno quase não mudou desde o último
+ * frame classificado (área e bounding box dentro da tolerância): reaproveita dedos, gesto e o hull
+ * que já estão no {@link FrameWorkspace} e só recalcula o centro. A cada {@code maxReuse} frames
+ * seguidos a classificação roda de novo de qualquer forma.
+ * Usa o workspace de uma única thread de análise; não é thread-safe.
+ */
+public class GestureTracker {
+
+    public enum EventType {ENTER, EXIT}
+
+    /**
+     * @param timestampNanos {@code System.nanoTime()} da captura do frame que disparou o evento
+     * @param durationNanos  na saída, quanto tempo o gesto ficou estável; 0 na entrada
+     */
+    public record Event(EventType type, String gesture, long frame, long timestampNanos, long durationNanos) {
+    }
+
+    // Tolerâncias do "contorno não mudou", relativas ao tamanho da mão
+    static final double AREA_TOLERANCE = 0.03;
+    static final double BOX_TOLERANCE = 0.03;
+    static final int MIN_BOX_TOLERANCE_PX = 3;
+
+    private final String[] labels;
+    private final int enterVotes, exitVotes, maxReuse;
+    private final Consumer<Event> listener;
+    private int head, filled;
+
+    private String stable;
+    private long stableSinceNanos;
+
+    // Último frame classificado de verdade
+    private ContourInfo last;
+    private Rect lastBox;
+    private double lastArea;
+    private int reuseStreak;
+
+    private long frames, reused, events;
+
+    /**
+     * @param window     tamanho do buffer circular de gestos
+     * @param enterVotes votos na janela para um gesto passar a ser o estável
+     * @param exitVotes  abaixo disso o gesto estável sai (deve ser menor que {@code enterVotes})
+     * @param maxReuse   máximo de frames seguidos reaproveitando a classificação
+     * @param listener   recebe os eventos na thread de análise
+     */
+    public GestureTracker(int window, int enterVotes, int exitVotes, int maxReuse, Consumer<Event> listener) {
+        if (exitVotes >= enterVotes || enterVotes > window) {
+            throw new IllegalArgumentException("Esperado exitVotes < enterVotes <= window");
+        }
+        this.labels = new String[window];
+        this.enterVotes = enterVotes;
+        this.exitVotes = exitVotes;
+        this.maxReuse = maxReuse;
+        this.listener = listener;
+    }
+
+    /** Janela de 8 frames, entra com 5 votos e sai com menos de 3. */
+    public GestureTracker(Consumer<Event> listener) {
+        this(8, 5, 3, 15, listener);
+    }
+
+    // ---------------- Classificação com reaproveitamento ----------------
+
+    /**
+     * Igual a {@link HandDetector#analyzeHand(Mat, FrameWorkspace, int, StageMetrics)}, mas devolve a
+     * classificação anterior quando o contorno {@code index} quase não mudou.
+     *
+     * @return {@code null} quando {@code index == -1}
+     */
+    ContourInfo analyze(Mat frame, FrameWorkspace ws, int index, StageMetrics stages) {
+        if (index == -1) {
+            last = null;
+            return null;
+        }
+        frames++;
+
+        MatOfPoint contour = ws.contours.get(index);
+        Rect box = Imgproc.boundingRect(contour);
+        if (last != null && reuseStreak < maxReuse && unchanged(box, ws.largestArea)) {
+            long start = stages != null ? System.nanoTime() : 0;
+            DetectionParams params = ws.params;
+            Moments m = Imgproc.moments(contour);
+            double cx = m.get_m10() / m.get_m00() / params.scale;
+            double cy = m.get_m01() / m.get_m00() / params.scale;
+            double area = ws.largestArea / (params.scale * params.scale);
+            if (stages != null) start = stages.lap(StageMetrics.Stage.CLASSIFY, start);
+
+            // o hull do ws.geometry ainda é o do último frame classificado
+            HandDetector.drawHand(frame, ws, index);
+            if (stages != null) stages.lap(StageMetrics.Stage.DRAW, start);
+
+            reuseStreak++;
+            reused++;
+            return new ContourInfo(last.fingerData, last.gesture, area, cx, cy, last.convexDefects, frame);
+        }
+
+        last = HandDetector.analyzeHand(frame, ws, index, stages);
+        lastBox = box;
+        lastArea = ws.largestArea;
+        reuseStreak = 0;
+        return last;
+    }
+
+    private boolean unchanged(Rect box, double area) {
+        if (Math.abs(area - lastArea) > AREA_TOLERANCE * lastArea) return false;
+        int tolX = Math.max(MIN_BOX_TOLERANCE_PX, (int) (lastBox.width * BOX_TOLERANCE));
+        int tolY = Math.max(MIN_BOX_TOLERANCE_PX, (int) (lastBox.height * BOX_TOLERANCE));
+        return Math.abs(box.x - lastBox.x) <= tolX
+                && Math.abs(box.x + box.width - lastBox.x - lastBox.width) <= tolX
+                && Math.abs(box.y - lastBox.y) <= tolY
+                && Math.abs(box.y + box.height - lastBox.y - lastBox.height) <= tolY;
+    }
+
+    // ---------------- Suavização ----------------
+
+    /**
+     * Registra o resultado do frame ({@code null} = sem mão) e dispara os eventos de mudança.
+     * @return o gesto estável depois deste frame, ou {@code null}
+     */
+    String update(ContourInfo info, long frame, long captureNanos) {
+        labels[head] = info != null ? info.gesture : null;
+        head = (head + 1) % labels.length;
+        if (filled < labels.length) filled++;
+
+        // gesto mais votado da janela (sem contar "sem mão")
+        String best = null;
+        int bestVotes = 0;
+        for (int i = 0; i < filled; i++) {
+            String label = labels[i];
+            if (label == null || label.equals(best)) continue;
+            int votes = votes(label);
+            if (votes > bestVotes) {
+                best = label;
+                bestVotes = votes;
+            }
+        }
+
+        if (stable != null) {
+            if (bestVotes >= enterVotes && !best.equals(stable)) {
+                exit(frame, captureNanos);
+                enter(best, frame, captureNanos);
+            } else if (votes(stable) < exitVotes) {
+                exit(frame, captureNanos);
+            }
+        } else if (bestVotes >= enterVotes) {
+            enter(best, frame, captureNanos);
+        }
+        return stable;
+    }
+
+    private int votes(String label) {
+        int votes = 0;
+        for (int i = 0; i < filled; i++) {
+            if (label.equals(labels[i])) votes++;
+        }
+        return votes;
+    }
+
+    private void enter(String gesture, long frame, long nanos) {
+        stable = gesture;
+        stableSinceNanos = nanos;
+        events++;
+        listener.accept(new Event(EventType.ENTER, gesture, frame, nanos, 0));
+    }
+
+    private void exit(long frame, long nanos) {
+        String gesture = stable;
+        stable = null;
+        events++;
+        listener.accept(new Event(EventType.EXIT, gesture, frame, nanos, nanos - stableSinceNanos));
+    }
+
+    String stableGesture() {
+        return stable;
+    }
+
+    /** Fração dos frames com mão que reaproveitaram a classificação anterior. */
+    double reuseRatio() {
+        return frames == 0 ? 0 : (double) reused / frames;
+    }
+
+    long events() {
+        return events;
+    }
+}
@@ -4,55 +4,215 @@ import org.opencv.imgproc.Imgproc;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.*;
 
 public class HandBatchDetector extends HandDetector{
 
     static String PATH = "src/src/HandDetector/benchmark/images/";
 
+    /**
+     * Uso: HandBatchDetector [threads] [--no-cache] [--readers 8] [--decoders N] [--depth N] [--binary]
+     * Sem argumento usa um worker de análise por núcleo disponível. Imagens já analisadas com os
+     * mesmos parâmetros vêm do {@link ResultCache} ({@code result_cache.csv}); {@code --no-cache}
+     * refaz tudo. As demais são lidas e decodificadas à frente da análise pelo {@link ImagePrefetcher}
+     * ({@code readers} leituras simultâneas, {@code decoders} threads de imdecode e até {@code depth}
+     * imagens prontas na fila). {@code --binary} grava também {@code batch_results.hcol}
+     * ({@link ColumnarWriter}), lido sem passar por texto pelo {@link ColumnarReader}.
+     */
     public static void main(String[] args) throws IOException {
         String inputDir = PATH + "allimgs";
         String outputCsv = PATH + "batch_results.csv";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int readers = 8;
+        int decoders = -1;
+        int depth = -1;
+        boolean useCache = true;
+        boolean binary = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--no-cache" -> useCache = false;
+                case "--binary" -> binary = true;
+                case "--readers" -> readers = Integer.parseInt(args[++i]);
+                case "--decoders" -> decoders = Integer.parseInt(args[++i]);
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                default -> threads = Integer.parseInt(args[i]);
+            }
+        }
+        if (decoders <= 0) decoders = Math.max(1, threads / 2);
+        if (depth <= 0) depth = 2 * threads;
 
-        try (PrintWriter csvWriter = new PrintWriter(new FileWriter(outputCsv))) {
-            csvWriter.println("file,fingers,maxContourArea,centerX,centerY,convexDefects,avgAngle,gesture");
+        // Lista todos os arquivos da pasta, ordenados para o CSV sair sempre na mesma ordem
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(Paths.get(inputDir))) {
+            files = paths.filter(Files::isRegularFile).sorted().toList();
+        }
 
-            // Lista todos os arquivos da pasta
-            try (Stream<Path> paths = Files.walk(Paths.get(inputDir))) {
-                paths.filter(Files::isRegularFile).forEach(path -> {
+        // Com vários workers o paralelismo interno do OpenCV só disputa os mesmos núcleos
+        if (threads > 1) Core.setNumThreads(1);
 
-                    ContourInfo info = HandDetector.analyzeImage(path.toString(), outputCsv);
-                    if (info == null) {
-                        System.out.println("❌ Erro lendo ou analisando: " + path);
-                        return;
-                    }
+        long startTime = System.nanoTime();
+        int analyzed = 0;
 
-                    showTextOnScreen(info.processedFrame, info.fingerData.count, info.gesture, path.toString());
+        ResultCache cache = useCache ? new ResultCache(Paths.get(PATH + "result_cache.csv"), DetectionParams.DEFAULT) : null;
+        List<CompletableFuture<ContourInfo>> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) results.add(new CompletableFuture<>());
+        long[] sizes = new long[files.size()];
+        long[] mtimes = new long[files.size()];
+        String[] hashes = new String[files.size()];
 
-                    String outputImagePath = PATH + "processed/" + path.getFileName().toString();
-                    Imgcodecs.imwrite(outputImagePath, info.processedFrame);
+        // Arquivo igual ao da última execução: sai do cache sem nem ler o conteúdo
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            sizes[i] = Files.size(path);
+            mtimes[i] = Files.getLastModifiedTime(path).toMillis();
+            ResultCache.Entry entry = cache != null ? cache.lookupByStat(path, sizes[i], mtimes[i]) : null;
+            if (isServable(entry, outputImage(path))) {
+                cache.hit(path, sizes[i], mtimes[i], entry);
+                results.get(i).complete(entry.info());
+            } else {
+                pending.add(i);
+            }
+        }
+
+        // Com os bytes já lidos: conteúdo conhecido (renomeado, copiado ou só tocado) não é decodificado
+        ImagePrefetcher.Filter filter = cache == null ? null : (k, path, bytes) -> {
+            int i = pending.get(k);
+            hashes[i] = ResultCache.sha256(bytes);
+            ResultCache.Entry entry = cache.lookupByHash(hashes[i]);
+            if (!isServable(entry, outputImage(path))) return true;
+            cache.hit(path, sizes[i], mtimes[i], entry);
+            results.get(i).complete(entry.info());
+            return false;
+        };
 
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (ImagePrefetcher prefetcher = new ImagePrefetcher(pending.stream().map(files::get).toList(),
+                readers, decoders, depth, filter);
+             MetricsWriter csvWriter = new MetricsWriter(new FileWriter(outputCsv), CsvSchemas.BATCH_HEADER,
+                     CsvSchemas.BATCH_DECIMALS, 4096, 1000, !binary ? null : ColumnarWriter.forCsvSchema(
+                             Paths.get(PATH + "batch_results.hcol"), CsvSchemas.BATCH_HEADER, CsvSchemas.BATCH_DECIMALS))) {
 
-                    csvWriter.printf(Locale.US,"%s,%d,%.2f,%.2f,%.2f,%d,%.2f,%s%n",
-                            path.getFileName().toString(),
-                            info.fingerData.count,
-                            info.maxArea,
-                            info.cx,
-                            info.cy,
-                            info.convexDefects,
-                            info.fingerData.avgAngle,
-                            info.gesture
-                    );
-                });
+            // Workers de análise consomem as imagens já decodificadas
+            for (int t = 0; t < threads; t++) {
+                pool.execute(() -> analysisLoop(prefetcher, pending, results, sizes, mtimes, hashes, cache));
             }
+
+            // Grava as linhas na ordem dos arquivos, independente de qual worker terminou antes
+            for (int i = 0; i < files.size(); i++) {
+                ContourInfo info = results.get(i).get();
+                if (info != null) {
+                    writeRow(csvWriter, files.get(i).getFileName().toString(), info);
+                    analyzed++;
+                }
+            }
+            // lote completo: o log de checkpoints vira um cache só com o corpus atual
+            if (cache != null) cache.compact();
+            prefetcher.printReport();
+        } catch (ExecutionException e) {
+            throw new IOException("Erro no processamento em lote", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Processamento em lote interrompido");
+        } finally {
+            pool.shutdownNow();
+            if (cache != null) cache.close();
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf(Locale.US, "✅ %d/%d imagens em %.2f s com %d threads (%.2f imagens/s)%n",
+                analyzed, files.size(), seconds, threads, files.size() / seconds);
+        if (cache != null) {
+            // tempo de análise guardado de cada acerto, dividido entre os workers como seria no lote
+            System.out.printf(Locale.US, "Cache: %d acertos, %d analisadas (%.1f%% de acerto), ~%.2f s economizados%n",
+                    cache.hits(), cache.misses(), cache.hitRate() * 100, cache.savedMillis() / 1e3 / threads);
         }
     }
 
+    private static void analysisLoop(ImagePrefetcher prefetcher, List<Integer> pending,
+                                     List<CompletableFuture<ContourInfo>> results,
+                                     long[] sizes, long[] mtimes, String[] hashes, ResultCache cache) {
+        try {
+            ImagePrefetcher.Item item;
+            while ((item = prefetcher.take()) != null) {
+                if (item.skipped()) continue; // já completado pelo filtro
+                int i = pending.get(item.index());
+                if (item.image() == null) {
+                    System.out.println("❌ Erro lendo ou analisando: " + item.path() + " (" + item.error() + ")");
+                    results.get(i).complete(null);
+                    continue;
+                }
+                try {
+                    results.get(i).complete(processImage(item, sizes[i], mtimes[i], hashes[i], cache));
+                } catch (Throwable e) {
+                    // inclui Errors (ex.: OutOfMemoryError): sem completar o future o loop de escrita esperaria para sempre
+                    results.get(i).completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // o worker morreu fora de uma imagem: o item que ele tirou da fila se perdeu, então o lote falha
+            for (CompletableFuture<ContourInfo> result : results) result.completeExceptionally(e);
+        }
+    }
+
+    private static ContourInfo processImage(ImagePrefetcher.Item item, long size, long mtime, String hash, ResultCache cache) {
+        long start = System.nanoTime();
+        Mat frame = item.image();
+        ContourInfo info;
+        try {
+            info = HandDetector.analyzeFrame(frame, FrameWorkspace.forCurrentThread());
+            if (info == null) {
+                System.out.println("Nenhuma mão detectada em: " + item.path());
+            } else {
+                showTextOnScreen(info.processedFrame, info.fingerData.count, info.gesture, item.path().toString());
+                Imgcodecs.imwrite(outputImage(item.path()).toString(), info.processedFrame);
+                info.processedFrame = null;
+            }
+        } finally {
+            NativeMats.release(frame);
+        }
+
+        // decode + análise: o que um acerto de cache evita na próxima execução
+        long millis = (item.decodeNanos() + System.nanoTime() - start) / 1_000_000;
+        if (cache != null) cache.record(item.path(), hash, size, mtime, millis, info);
+        return info;
+    }
+
+    private static Path outputImage(Path path) {
+        return Paths.get(PATH + "processed/" + path.getFileName().toString());
+    }
+
+    /** Um acerto só vale se a imagem processada ainda estiver em {@code processed/} (quando há mão). */
+    private static boolean isServable(ResultCache.Entry entry, Path outputImage) {
+        return entry != null && (entry.info() == null || Files.exists(outputImage));
+    }
+
+    private static void writeRow(MetricsWriter csvWriter, String fileName, ContourInfo info) {
+        csvWriter.beginRow()
+                .put(fileName)
+                .put(info.fingerData.count)
+                .put(info.maxArea)
+                .put(info.cx)
+                .put(info.cy)
+                .put(info.convexDefects)
+                .put(info.fingerData.avgAngle)
+                .put(info.gesture)
+                .endRow();
+    }
+
     public static void showTextOnScreen(Mat frame, int fingerCount, String gesture,String imagePath) {
         Imgproc.putText(frame, "F" + fingerCount, new Point(5, 25),
                 Imgproc.FONT_HERSHEY_SIMPLEX, 0.6, new Scalar(0, 0, 0), 1);
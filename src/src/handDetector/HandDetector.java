@@ -4,12 +4,10 @@ import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 import org.opencv.imgproc.Moments;
 import org.opencv.videoio.VideoCapture;
-import org.opencv.highgui.HighGui;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -21,82 +19,72 @@ public class HandDetector {
 
     static String PATH = "src/src/HandDetector/reports/001/";
 
-
+    /**
+     * Uso: HandDetector [índice da câmera | vídeo | pasta de imagens] [--headless] [--no-roi] [--no-gate] [--scale 0.5] [--skin-lut] [--binary]
+     * {@code --binary} grava também {@code performance<n>.hcol} ({@link ColumnarWriter}) ao lado do CSV.
+     * Ex.: {@code HandDetector gravacao.mp4 --headless} ou {@code HandDetector sessao/frames --headless}
+     */
     public static void main(String[] args) throws IOException {
-
-        VideoCapture camera = createCamera(0);
-
-        Mat frame = new Mat();
-        Mat mask = new Mat();
-        Mat hierarchy = new Mat();
-
-        try (PrintWriter csvWriter = new PrintWriter(new FileWriter(PATH + "csvs/performance" + (int) (Math.random() * 1000) + ".csv"))) {
-            csvWriter.println("frame,fingers,maxContourArea,centerX,centerY,convexDefects,avgAngle,fps,usedMemoryMB,cpuLoad,gesture");
-
-            int frameNumber = 0;
-
-            while (true) {
-                long startTime = System.currentTimeMillis();
-                if (!camera.read(frame) || frame.empty()) break;
-
-                processFrame(frame, mask, hierarchy);
-
-                int index = findLargestContourIndex(mask, hierarchy);
-                FingerData fingerData = new FingerData(0, 0);
-                String gesture = "";
-                double maxArea = 0, cx = 0, cy = 0;
-                int convexDefects = 0;
-
-                if (index != -1) {
-                    ContourInfo info = analyzeHand(frame, mask, hierarchy, index);
-                    fingerData = info.fingerData;
-                    gesture = info.gesture;
-                    maxArea = info.maxArea;
-                    cx = info.cx;
-                    cy = info.cy;
-                    convexDefects = info.convexDefects;
-                }
-
-                double fps = calculateFPS(startTime);
-                double usedMemoryMB = getUsedMemoryMB();
-                double cpuLoad = getCpuLoad();
-
-                if (index != -1) {
-                    csvWriter.printf(Locale.US, "%d,%d,%.2f,%.2f,%.2f,%d,%.2f,%.2f,%.2f,%.4f,%s%n",
-                            frameNumber++, fingerData.count, maxArea, cx, cy, convexDefects,
-                            fingerData.avgAngle, fps, usedMemoryMB, cpuLoad, gesture);
-                    csvWriter.flush();
-                    showTextOnScreen(frame, fingerData, gesture, fps, usedMemoryMB, cpuLoad);
-                }
-
-                // Mostra apenas uma janela com o resultado final
-                HighGui.imshow("Detecção de Mão", frame);
-
-                int key = HighGui.waitKey(100) & 0xFF; // aumenta o tempo de espera
-
-                if (key == 27) {
-                    break;
-                } else if (key == 50) {
-                    String filename = String.format(
-                            PATH + "media/hand_snapshot_%03d.png",
-                            (int) (Math.random() * 1000)
-                    );
-                    saveImage(frame, filename);
-                    System.out.println("📸 Imagem salva como " + filename);
-                }
+        String sourceSpec = "0";
+        boolean headless = false;
+        boolean trackRoi = true;
+        boolean motionGate = true;
+        double scale = 1.0;
+        boolean skinLut = false;
+        boolean binary = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--headless" -> headless = true;
+                case "--no-roi" -> trackRoi = false;
+                case "--no-gate" -> motionGate = false;
+                case "--scale" -> scale = Double.parseDouble(args[++i]);
+                case "--skin-lut" -> skinLut = true;
+                case "--binary" -> binary = true;
+                default -> sourceSpec = args[i];
             }
+        }
+
+        int run = (int) (Math.random() * 1000);
+        try (FrameSource source = FrameSource.open(sourceSpec);
+             FrameSink sink = headless ? new HeadlessSink() : new WindowSink("Detecção de Mão");
+             MetricsWriter metrics = new MetricsWriter(
+                     new FileWriter(PATH + "csvs/performance" + run + ".csv"), CsvSchemas.FRAME_HEADER,
+                     CsvSchemas.FRAME_DECIMALS, 8192, 1000, !binary ? null : ColumnarWriter.forCsvSchema(
+                             Paths.get(PATH + "csvs/performance" + run + ".hcol"), CsvSchemas.FRAME_HEADER, CsvSchemas.FRAME_DECIMALS));
+             StageMetrics stages = new StageMetrics(1000, 10)) {
+
+            System.out.println("Fonte: " + source.name());
+            FrameAnalyzer analyzer = new FrameAnalyzer(new DetectionParams(scale, skinLut),
+                    trackRoi ? new RoiTracker(30, 0.5) : null,
+                    new GestureTracker(HandDetector::printGestureEvent),
+                    motionGate ? new MotionGate() : null);
+            HandPipeline pipeline = new HandPipeline(source, sink, metrics, 2, analyzer, stages);
+            pipeline.run();
+            pipeline.printReport();
+            stages.printSummary();
+            stages.exportCsv(PATH + "csvs/stages" + run + ".csv");
+            NativeMats.printReport();
         } catch (IOException e) {
-            System.out.println("Erro ao criar arquivo CSV: " + e.getMessage());
+            System.out.println("Erro ao abrir a fonte ou o arquivo CSV: " + e.getMessage());
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
-        camera.release();
-        HighGui.destroyAllWindows();
         System.exit(0);
     }
 
     // ---------------- Funções auxiliares ----------------
 
+    static void printGestureEvent(GestureTracker.Event event) {
+        if (event.type() == GestureTracker.EventType.ENTER) {
+            System.out.println("✋ " + event.gesture() + " (frame " + event.frame() + ")");
+        } else {
+            System.out.printf(Locale.US, "   %s terminou após %.2f s (frame %d)%n",
+                    event.gesture(), event.durationNanos() / 1e9, event.frame());
+        }
+    }
+
     public static VideoCapture createCamera(int index) {
         VideoCapture camera = new VideoCapture(index);
         if (!camera.isOpened()) {
@@ -139,31 +127,29 @@ public class HandDetector {
                 1.0, new Scalar(0, 255, 0), 2);
     }
 
-    private static MatOfPoint hullPointsFromIndices(MatOfPoint contour, MatOfInt hull) {
-        Point[] contourPts = contour.toArray();
-        int[] hullIdx = hull.toArray();
-        Point[] hullPts = new Point[hullIdx.length];
-        for (int i = 0; i < hullIdx.length; i++) hullPts[i] = contourPts[hullIdx[i]];
-        MatOfPoint mop = new MatOfPoint();
-        mop.fromArray(hullPts);
-        return mop;
+    private static List<MatOfPoint> hullPointsFromIndices(FrameWorkspace ws) {
+        ContourGeometry geometry = ws.geometry;
+        ws.hullBuffer = geometry.hullPoints(ws.hullBuffer);
+        ws.hullPoints.create(geometry.hullSize, 1, CvType.CV_32SC2);
+        if (geometry.hullSize > 0) ws.hullPoints.put(0, 0, ws.hullBuffer);
+        return ws.hullList;
     }
 
-    private static FingerData countFingers(MatOfInt4 defects, MatOfPoint contour) {
-        if (defects.empty()) return new FingerData(0, 0);
-        int[] arr = defects.toArray();
-        Point[] points = contour.toArray();
+    static FingerData countFingers(Mat defects, ContourGeometry geometry, DetectionParams params) {
+        geometry.loadDefects(defects);
+        if (geometry.defectCount == 0) return new FingerData(0, 0);
+        int[] arr = geometry.defects;
         int count = 0;
         double sumAngle = 0;
         int validDefects = 0;
 
-        for (int i = 0; i < arr.length; i += 4) {
+        for (int i = 0; i < geometry.defectCount * 4; i += 4) {
             int startIdx = arr[i];
             int endIdx = arr[i + 1];
             int farIdx = arr[i + 2];
             float depth = arr[i + 3] / 256.0f;
-            if (depth > 25) {
-                double angle = calcAngle(points[startIdx], points[farIdx], points[endIdx]);
+            if (depth > params.minDefectDepth) {
+                double angle = geometry.angle(startIdx, farIdx, endIdx);
                 if (angle < 85) {
                     count++;
                     sumAngle += angle;
@@ -175,64 +161,40 @@ public class HandDetector {
         return new FingerData(Math.min(5, count + 1), avgAngle);
     }
 
-    private static double calcAngle(Point a, Point b, Point c) {
-        double ab = dist(a, b);
-        double bc = dist(b, c);
-        double ac = dist(a, c);
-        double angle = Math.acos((ab * ab + bc * bc - ac * ac) / (2 * ab * bc));
-        return Math.toDegrees(angle);
-    }
-
-    private static double dist(Point p1, Point p2) {
-        double dx = p1.x - p2.x;
-        double dy = p1.y - p2.y;
-        return Math.sqrt(dx * dx + dy * dy);
-    }
-
-    private static String classifyGesture(int fingers, MatOfPoint contour, MatOfInt4 defects) {
+    /**
+     * @param contour  contorno aproximado (usado para os momentos)
+     * @param geometry o mesmo contorno já carregado em arrays primitivos
+     * @param params   limiares em pixels já ajustados para a escala de processamento
+     */
+    static String classifyGesture(int fingers, MatOfPoint contour, ContourGeometry geometry, DetectionParams params) {
         if (fingers == 0) return "Fist";
         if (fingers == 5) return "Palm";
 
-        List<Point> contourPoints = contour.toList();
-
         // Calcula centro da mão
         Moments m = Imgproc.moments(contour);
-        double cx = m.get_m10() / m.get_m00();
         double cy = m.get_m01() / m.get_m00();
 
-        // Pega os pontos mais altos e mais baixos
-        double topY = contourPoints.stream().mapToDouble(p -> p.y).min().orElse(cy);
-        double bottomY = contourPoints.stream().mapToDouble(p -> p.y).max().orElse(cy);
-
         // 1 dedo → verificar Thumbs Up
         if (fingers == 1) {
-            Point highestPoint = contourPoints.stream().min((p1, p2) -> Double.compare(p1.y, p2.y)).get();
-            if (highestPoint.y < cy) return "Thumbs Up";
+            int highestY = geometry.minY();
+            if (highestY < cy) return "Thumbs Up";
             else return "Index Up"; // outro gesto de 1 dedo
         }
 
         // 2 dedos → Peace ou Rock
         if (fingers == 2) {
             // calcula distância horizontal entre dedos mais altos
-            List<Point> topPoints = contourPoints.stream()
-                    .sorted((p1, p2) -> Double.compare(p1.y, p2.y))
-                    .limit(2).toList();
-            double dx = Math.abs(topPoints.get(0).x - topPoints.get(1).x);
-            if (dx > 40) return "Peace"; // dedos separados
+            long topPoints = geometry.topTwo();
+            double dx = Math.abs(geometry.x((int) (topPoints >>> 32)) - geometry.x((int) topPoints));
+            if (dx > params.peaceMinDx) return "Peace"; // dedos separados
             else return "Rock";           // dedos próximos
         }
 
         // 3 dedos → pode ser OK ou outros gestos
         if (fingers == 3) {
             // procurar círculo aproximado (polegar + indicador)
-            double minDist = Double.MAX_VALUE;
-            for (int i = 0; i < contourPoints.size(); i++) {
-                for (int j = i + 1; j < contourPoints.size(); j++) {
-                    double dist = dist(contourPoints.get(i), contourPoints.get(j));
-                    if (dist < minDist) minDist = dist;
-                }
-            }
-            if (minDist < 50) return "OK"; // aproximação de círculo
+            double minDist = geometry.closestPairDistance();
+            if (minDist < params.okMaxDist) return "OK"; // aproximação de círculo
         }
 
         // Default para 3 ou 4 dedos
@@ -244,77 +206,154 @@ public class HandDetector {
         System.out.println("Imagem salva como " + filename);
     }
 
-    private static void processFrame(Mat frame, Mat mask, Mat hierarchy) {
+    static void processFrame(Mat frame, FrameWorkspace ws) {
+        processFrame(frame, ws, null);
+    }
+
+    /**
+     * @param roi região a segmentar (coordenadas já espelhadas e na escala de processamento), ou
+     *            {@code null} para o frame inteiro. Fora da região a máscara não é atualizada;
+     *            {@code findLargestContourIndex} só olha a região.
+     */
+    static void processFrame(Mat frame, FrameWorkspace ws, Rect roi) {
         Core.flip(frame, frame, 1);
-        Imgproc.GaussianBlur(frame, frame, new Size(5, 5), 0);
-        Mat ycrcb = new Mat();
-        Imgproc.cvtColor(frame, ycrcb, Imgproc.COLOR_BGR2YCrCb);
-        Core.inRange(ycrcb, new Scalar(0, 133, 77), new Scalar(255, 173, 127), mask);
-        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(5, 5));
-        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_OPEN, kernel);
-        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_CLOSE, kernel);
-        Imgproc.medianBlur(mask, mask, 5);
+        ws.roi = roi;
+
+        // Com escala < 1 a segmentação roda numa cópia reduzida; o frame original fica para o desenho
+        Mat work = frame;
+        if (ws.params.isScaled()) {
+            Imgproc.resize(frame, ws.scaled,
+                    new Size(ws.params.scaledCols(frame.cols()), ws.params.scaledRows(frame.rows())),
+                    0, 0, Imgproc.INTER_AREA);
+            work = ws.scaled;
+        }
+
+        // Na escala 1 o blur é no próprio frame exibido: borra o frame inteiro também com ROI, senão a
+        // imagem mostrada/salva teria só um retângulo borrado
+        if (roi == null || work == frame) Imgproc.GaussianBlur(work, work, FrameWorkspace.BLUR_SIZE, 0);
+
+        if (roi == null) {
+            segmentSkin(work, ws.ycrcb, ws.mask, ws);
+            Imgproc.morphologyEx(ws.mask, ws.mask, Imgproc.MORPH_OPEN, ws.kernel);
+            Imgproc.morphologyEx(ws.mask, ws.mask, Imgproc.MORPH_CLOSE, ws.kernel);
+            Imgproc.medianBlur(ws.mask, ws.mask, 5);
+            return;
+        }
+
+        // Buffers continuam com o tamanho do frame; a região é só uma view sobre eles
+        ws.ycrcb.create(work.size(), work.type());
+        ws.mask.create(work.size(), CvType.CV_8UC1);
+        try (MatPool.Scope scope = ws.frameMats.open()) {
+            Mat src = scope.adopt(work.submat(roi));
+            Mat ycrcb = scope.adopt(ws.ycrcb.submat(roi));
+            Mat mask = scope.adopt(ws.mask.submat(roi));
+
+            // cópia reduzida (não exibida): basta borrar a região.
+            // BORDER_ISOLATED: não lê pixels de fora da região (na máscara eles são de frames anteriores)
+            if (work != frame) {
+                Imgproc.GaussianBlur(src, src, FrameWorkspace.BLUR_SIZE, 0, 0, Core.BORDER_DEFAULT | Core.BORDER_ISOLATED);
+            }
+            segmentSkin(src, ycrcb, mask, ws);
+            Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_OPEN, ws.kernel, FrameWorkspace.ANCHOR, 1,
+                    Core.BORDER_CONSTANT | Core.BORDER_ISOLATED);
+            Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_CLOSE, ws.kernel, FrameWorkspace.ANCHOR, 1,
+                    Core.BORDER_CONSTANT | Core.BORDER_ISOLATED);
+            Imgproc.medianBlur(mask, mask, 5);
+        }
+    }
+
+    static void segmentSkin(Mat src, Mat ycrcb, Mat mask, FrameWorkspace ws) {
+        if (ws.skin != null) {
+            ws.skin.segment(src, mask);
+            return;
+        }
+        Imgproc.cvtColor(src, ycrcb, Imgproc.COLOR_BGR2YCrCb);
+        Core.inRange(ycrcb, FrameWorkspace.SKIN_LOWER, FrameWorkspace.SKIN_UPPER, mask);
     }
 
-    private static int findLargestContourIndex(Mat mask, Mat hierarchy) {
-        List<MatOfPoint> contours = new ArrayList<>();
-        Imgproc.findContours(mask.clone(), contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
-        double maxArea = 5000;
+    // Único findContours do frame: a lista e a maior área ficam no workspace para o analyzeHand.
+    // Desde o OpenCV 3.2 o findContours não altera a máscara, então não precisa de clone.
+    static int findLargestContourIndex(FrameWorkspace ws) {
+        ws.clearContours();
+        if (ws.roi == null) {
+            Imgproc.findContours(ws.mask, ws.contours, ws.hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        } else {
+            // offset devolve os contornos já em coordenadas do frame inteiro
+            try (MatPool.Scope scope = ws.frameMats.open()) {
+                Imgproc.findContours(scope.adopt(ws.mask.submat(ws.roi)), ws.contours, ws.hierarchy,
+                        Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE, new Point(ws.roi.x, ws.roi.y));
+            }
+        }
+        double maxArea = ws.params.minArea;
         int index = -1;
-        for (int i = 0; i < contours.size(); i++) {
-            double area = Imgproc.contourArea(contours.get(i));
+        for (int i = 0; i < ws.contours.size(); i++) {
+            double area = Imgproc.contourArea(ws.contours.get(i));
             if (area > maxArea) {
                 maxArea = area;
                 index = i;
             }
         }
+        ws.largestArea = maxArea;
         return index;
     }
 
-    public static ContourInfo analyzeHand(Mat frame, Mat mask, Mat hierarchy, int index) {
-        List<MatOfPoint> contours = new ArrayList<>();
-        Imgproc.findContours(mask.clone(), contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
-        MatOfPoint contour = contours.get(index);
-        MatOfPoint2f contour2f = new MatOfPoint2f(contour.toArray());
-        Imgproc.approxPolyDP(contour2f, contour2f, 3, true);
-        MatOfPoint approxContour = new MatOfPoint();
-        contour2f.convertTo(approxContour, CvType.CV_32S);
-        Imgproc.drawContours(frame, contours, index, new Scalar(0, 255, 0), 2);
-        MatOfInt hull = new MatOfInt();
-        Imgproc.convexHull(approxContour, hull);
-        MatOfPoint hullPoints = hullPointsFromIndices(approxContour, hull);
-        List<MatOfPoint> hullList = new ArrayList<>();
-        hullList.add(hullPoints);
-        Imgproc.drawContours(frame, hullList, 0, new Scalar(255, 0, 0), 2);
-        MatOfInt4 defects = new MatOfInt4();
-        Imgproc.convexityDefects(approxContour, hull, defects);
-        FingerData fingerData = countFingers(defects, approxContour);
-        String gesture = classifyGesture(fingerData.count, approxContour, defects);
-        Moments m = Imgproc.moments(contour);
-        double cx = m.get_m10() / m.get_m00();
-        double cy = m.get_m01() / m.get_m00();
-        double maxArea = Imgproc.contourArea(contour);
-        int convexDefects = (int) defects.total();
-        return new ContourInfo(fingerData, gesture, maxArea, cx, cy, convexDefects, frame);
+    static MatOfPoint approximateContour(MatOfPoint contour, FrameWorkspace ws) {
+        contour.convertTo(ws.contour2f, CvType.CV_32F);
+        Imgproc.approxPolyDP(ws.contour2f, ws.approxCurve, ws.params.approxEpsilon, true);
+        ws.approxCurve.convertTo(ws.approxContour, CvType.CV_32S);
+        return ws.approxContour;
     }
 
-    private static double calculateFPS(long startTime) {
-        long endTime = System.currentTimeMillis();
-        return 1000.0 / (endTime - startTime);
+    public static ContourInfo analyzeHand(Mat frame, FrameWorkspace ws, int index) {
+        return analyzeHand(frame, ws, index, null);
     }
 
-    private static double getUsedMemoryMB() {
-        Runtime runtime = Runtime.getRuntime();
-        return (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0;
+    /**
+     * @param stages se não for {@code null}, recebe os tempos de hull/defeitos, classificação e desenho
+     */
+    static ContourInfo analyzeHand(Mat frame, FrameWorkspace ws, int index, StageMetrics stages) {
+        long start = stages != null ? System.nanoTime() : 0;
+        DetectionParams params = ws.params;
+        List<MatOfPoint> contours = ws.contours;
+        MatOfPoint contour = contours.get(index);
+        MatOfPoint approxContour = approximateContour(contour, ws);
+        ContourGeometry geometry = ws.geometry.load(approxContour);
+        Imgproc.convexHull(approxContour, ws.hull);
+        geometry.loadHull(ws.hull);
+        Imgproc.convexityDefects(approxContour, ws.hull, ws.defects);
+        if (stages != null) start = stages.lap(StageMetrics.Stage.HULL_DEFECTS, start);
+
+        FingerData fingerData = countFingers(ws.defects, geometry, params);
+        String gesture = classifyGesture(fingerData.count, approxContour, geometry, params);
+        Moments m = Imgproc.moments(contour);
+        double cx = m.get_m10() / m.get_m00() / params.scale;
+        double cy = m.get_m01() / m.get_m00() / params.scale;
+        double maxArea = ws.largestArea / (params.scale * params.scale);
+        int convexDefects = (int) ws.defects.total();
+        if (stages != null) start = stages.lap(StageMetrics.Stage.CLASSIFY, start);
+
+        drawHand(frame, ws, index);
+        if (stages != null) stages.lap(StageMetrics.Stage.DRAW, start);
+
+        return new ContourInfo(fingerData, gesture, maxArea, cx, cy, convexDefects, frame);
     }
 
-    private static double getCpuLoad() {
-        com.sun.management.OperatingSystemMXBean osBean =
-                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
-        return osBean.getProcessCpuLoad();
+    /** Desenha o contorno {@code index} e o hull que está no {@code ws.geometry}. */
+    static void drawHand(Mat frame, FrameWorkspace ws, int index) {
+        // Desenho no frame original: com escala < 1 os pontos voltam para a resolução de captura
+        DetectionParams params = ws.params;
+        List<MatOfPoint> hullList = hullPointsFromIndices(ws);
+        if (params.isScaled()) {
+            ws.contours.get(index).convertTo(ws.drawContour, CvType.CV_32S, 1 / params.scale);
+            ws.hullPoints.convertTo(ws.hullPoints, CvType.CV_32S, 1 / params.scale);
+            Imgproc.drawContours(frame, ws.drawList, 0, new Scalar(0, 255, 0), 2);
+        } else {
+            Imgproc.drawContours(frame, ws.contours, index, new Scalar(0, 255, 0), 2);
+        }
+        Imgproc.drawContours(frame, hullList, 0, new Scalar(255, 0, 0), 2);
     }
 
-    private static void saveSnapshot(Mat frame) {
+    static void saveSnapshot(Mat frame) {
         String filename = String.format(PATH + "media/hand_snapshot_%03d.png", (int) (Math.random() * 1000));
         saveImage(frame, filename);
         System.out.println("📸 Imagem salva como " + filename);
@@ -327,22 +366,23 @@ public class HandDetector {
             return null;
         }
 
-        Mat mask = new Mat();
-        Mat hierarchy = new Mat();
+        ContourInfo info = analyzeFrame(frame, FrameWorkspace.forCurrentThread());
+        if (info == null) {
+            System.out.println("Nenhuma mão detectada em: " + imagePath);
+        }
+        return info;
+    }
 
+    /** Pipeline completo num frame já carregado; {@code null} se nenhuma mão for encontrada. */
+    static ContourInfo analyzeFrame(Mat frame, FrameWorkspace ws) {
         // pré-processamento
-        processFrame(frame, mask, hierarchy);
+        processFrame(frame, ws);
 
-        int index = findLargestContourIndex(mask, hierarchy);
-        if (index == -1) {
-            System.out.println("Nenhuma mão detectada em: " + imagePath);
-            return null;
-        }
+        int index = findLargestContourIndex(ws);
+        if (index == -1) return null;
 
         // análise
-        ContourInfo info = analyzeHand(frame, mask, hierarchy, index);
-
-        return info;
+        return analyzeHand(frame, ws, index);
     }
 
 
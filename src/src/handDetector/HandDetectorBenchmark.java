@@ -0,0 +1,398 @@
+import org.opencv.core.*;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark isolado de cada estágio do pipeline (processFrame, findLargestContourIndex, analyzeHand,
+ * countFingers e classifyGesture, além da máscara de pele por {@code cvtColor + inRange} e pela
+ * {@link SkinClassifier}) sobre o corpus de {@code benchmark/images/allimgs}, em várias resoluções
+ * (sem ele usa as saídas anotadas de {@code images/processed}, com um aviso).
+ * <p>
+ * O corpus é carregado uma vez por resolução; cada estágio roda um aquecimento e depois várias
+ * iterações medidas, ciclando pelas imagens. Reporta throughput, tempo médio e alocação de heap
+ * por operação (contador de alocação da thread, o mesmo usado pelo profiler de GC do JMH).
+ * <p>
+ * Com {@code --baseline} compara o tempo médio com um CSV gerado antes e sai com código 1 se algum
+ * estágio ficou mais lento que a tolerância, servindo de gate de regressão.
+ *
+ * <pre>
+ * HandDetectorBenchmark [--limit 100] [--heights native,480,720] [--time 1000] [--iterations 5]
+ *                       [--out stage_benchmark.csv] [--baseline anterior.csv] [--tolerance 0.10]
+ * </pre>
+ */
+public class HandDetectorBenchmark {
+    static {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+    }
+
+    static String PATH = "src/src/HandDetector/benchmark/";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Uma imagem do corpus já preparada para os estágios seguintes ao que está sendo medido. */
+    static final class Sample {
+        Mat source;
+        FrameWorkspace ws;
+        int index = -1;
+        MatOfPoint approx;
+        MatOfInt4 defects;
+        int fingers;
+
+        void release() {
+            source.release();
+            ws.release();
+            if (approx != null) approx.release();
+            if (defects != null) defects.release();
+        }
+    }
+
+    interface Stage {
+        void run(Sample sample);
+    }
+
+    record Result(String stage, String height, int samples, long ops, long nanos, long allocatedBytes) {
+        double opsPerSec() {
+            return ops / (nanos / 1e9);
+        }
+
+        double avgMicros() {
+            return nanos / 1e3 / ops;
+        }
+
+        double bytesPerOp() {
+            return (double) allocatedBytes / ops;
+        }
+
+        double allocMBPerSec() {
+            return allocatedBytes / 1024.0 / 1024.0 / (nanos / 1e9);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int limit = Integer.parseInt(options.getOrDefault("limit", "100"));
+        String[] heights = options.getOrDefault("heights", "native,480,720").split(",");
+        long timeMillis = Long.parseLong(options.getOrDefault("time", "1000"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        String out = options.getOrDefault("out", PATH + "stage_benchmark.csv");
+
+        List<Path> files = corpus(limit);
+        System.out.println("Corpus: " + files.size() + " imagens");
+
+        List<Result> results = new ArrayList<>();
+        for (String height : heights) {
+            List<Sample> samples = loadSamples(files, height);
+            List<Sample> hands = samples.stream().filter(s -> s.index != -1).toList();
+            System.out.printf("%n== Resolução %s (%d imagens, %d com mão) ==%n", height, samples.size(), hands.size());
+
+            FrameWorkspace shared = new FrameWorkspace();
+            ContourGeometry geometry = shared.geometry;
+            Mat scratch = new Mat();
+
+            results.add(measure("processFrame", height, samples, timeMillis, iterations, s -> {
+                s.source.copyTo(scratch);
+                HandDetector.processFrame(scratch, shared);
+            }));
+            FrameWorkspace lut = new FrameWorkspace(new DetectionParams(1.0, true));
+            results.add(measure("processFrameLut", height, samples, timeMillis, iterations, s -> {
+                s.source.copyTo(scratch);
+                HandDetector.processFrame(scratch, lut);
+            }));
+            results.add(measure("skinCvtColorInRange", height, samples, timeMillis, iterations,
+                    s -> HandDetector.segmentSkin(s.source, shared.ycrcb, shared.mask, shared)));
+            results.add(measure("skinLut", height, samples, timeMillis, iterations,
+                    s -> HandDetector.segmentSkin(s.source, lut.ycrcb, lut.mask, lut)));
+            compareSkinMasks(samples, shared, lut);
+            results.add(measure("findLargestContourIndex", height, samples, timeMillis, iterations,
+                    s -> HandDetector.findLargestContourIndex(s.ws)));
+            if (!hands.isEmpty()) {
+                results.add(measure("analyzeHand", height, hands, timeMillis, iterations, s -> {
+                    s.source.copyTo(scratch);
+                    HandDetector.analyzeHand(scratch, s.ws, s.index);
+                }));
+                results.add(measure("countFingers", height, hands, timeMillis, iterations,
+                        s -> HandDetector.countFingers(s.defects, geometry.load(s.approx), DetectionParams.DEFAULT)));
+                results.add(measure("classifyGesture", height, hands, timeMillis, iterations,
+                        s -> HandDetector.classifyGesture(s.fingers, s.approx, geometry.load(s.approx), DetectionParams.DEFAULT)));
+            }
+
+            compareClosestPair(hands, geometry);
+
+            scratch.release();
+            shared.release();
+            lut.release();
+            for (Sample sample : samples) sample.release();
+        }
+
+        writeResults(out, results);
+        System.out.println("\nResultados salvos em " + out);
+
+        if (options.containsKey("baseline")) {
+            double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.10"));
+            if (!compareWithBaseline(options.get("baseline"), results, tolerance)) System.exit(1);
+        }
+    }
+
+    // ---------------- Corpus ----------------
+
+    // imagens originais (entrada do HandBatchDetector) e as saídas dele, com contorno, hull e texto desenhados
+    static final Path RAW_IMAGES = Paths.get(PATH + "images/allimgs");
+    static final Path ANNOTATED_IMAGES = Paths.get(PATH + "images/processed");
+
+    /**
+     * Imagens originais; sem elas mede sobre as saídas anotadas do {@link HandBatchDetector} e avisa,
+     * já que o desenho por cima muda a máscara e os contornos.
+     */
+    static List<Path> corpus(int limit) throws IOException {
+        if (Files.isDirectory(RAW_IMAGES)) return listImages(RAW_IMAGES, limit);
+        System.out.println("⚠ " + RAW_IMAGES + " não existe: medindo sobre " + ANNOTATED_IMAGES
+                + ", imagens já anotadas (contorno, hull e texto desenhados), não as originais");
+        return listImages(ANNOTATED_IMAGES, limit);
+    }
+
+    static List<Path> listImages(Path dir, int limit) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().toLowerCase(Locale.ROOT).endsWith(".jpg"))
+                    .sorted().limit(limit).toList();
+        }
+    }
+
+    private static List<Sample> loadSamples(List<Path> files, String height) {
+        List<Sample> samples = new ArrayList<>(files.size());
+        for (Path file : files) {
+            Mat image = Imgcodecs.imread(file.toString());
+            if (image.empty()) continue;
+
+            Sample sample = new Sample();
+            sample.source = resizeToHeight(image, height);
+
+            // Prepara as entradas dos estágios seguintes rodando o pipeline uma vez
+            Mat frame = sample.source.clone();
+            sample.ws = new FrameWorkspace();
+            HandDetector.processFrame(frame, sample.ws);
+            sample.ws.ycrcb.release();
+            sample.index = HandDetector.findLargestContourIndex(sample.ws);
+            if (sample.index != -1) {
+                MatOfPoint approx = HandDetector.approximateContour(sample.ws.contours.get(sample.index), sample.ws);
+                Imgproc.convexHull(approx, sample.ws.hull);
+                Imgproc.convexityDefects(approx, sample.ws.hull, sample.ws.defects);
+                sample.approx = new MatOfPoint(approx.clone());
+                sample.defects = new MatOfInt4(sample.ws.defects.clone());
+                sample.fingers = HandDetector.countFingers(sample.defects, sample.ws.geometry.load(sample.approx), DetectionParams.DEFAULT).count;
+            }
+            frame.release();
+            samples.add(sample);
+        }
+        return samples;
+    }
+
+    private static Mat resizeToHeight(Mat image, String height) {
+        if (height.equals("native")) return image;
+        int rows = Integer.parseInt(height);
+        Mat resized = new Mat();
+        Imgproc.resize(image, resized, new Size(Math.round(image.cols() * (double) rows / image.rows()), rows),
+                0, 0, Imgproc.INTER_LINEAR);
+        image.release();
+        return resized;
+    }
+
+    // ---------------- Medição ----------------
+
+    private static Result measure(String name, String height, List<Sample> samples,
+                                  long timeMillis, int iterations, Stage stage) {
+        // aquecimento: mesma duração de uma iteração medida
+        runFor(stage, samples, timeMillis);
+
+        long ops = 0, nanos = 0, allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            ops += runFor(stage, samples, timeMillis);
+            nanos += System.nanoTime() - start;
+            allocated += THREADS.getCurrentThreadAllocatedBytes() - allocBefore;
+        }
+
+        Result result = new Result(name, height, samples.size(), ops, nanos, allocated);
+        System.out.printf(Locale.US, "%-24s %10.1f ops/s %10.2f us/op %10.0f B/op %8.2f MB/s%n",
+                name, result.opsPerSec(), result.avgMicros(), result.bytesPerOp(), result.allocMBPerSec());
+        return result;
+    }
+
+    private static long runFor(Stage stage, List<Sample> samples, long timeMillis) {
+        long deadline = System.nanoTime() + timeMillis * 1_000_000L;
+        long ops = 0;
+        int i = 0;
+        do {
+            stage.run(samples.get(i));
+            if (++i == samples.size()) i = 0;
+            ops++;
+        } while (System.nanoTime() < deadline);
+        return ops;
+    }
+
+    // ---------------- Máscara de pele: cvtColor + inRange x tabela ----------------
+
+    /**
+     * Gera a máscara de pele de cada imagem (já com o blur do processFrame) pelos dois caminhos,
+     * mede o tempo por frame de cada um e confere que as máscaras são idênticas byte a byte.
+     */
+    private static void compareSkinMasks(List<Sample> samples, FrameWorkspace opencv, FrameWorkspace lut) {
+        long[] before = new long[samples.size()];
+        long[] after = new long[samples.size()];
+        int mismatches = 0;
+        Mat blurred = new Mat();
+        Mat diff = new Mat();
+
+        for (int round = 0; round < 2; round++) { // a primeira rodada só aquece
+            for (int i = 0; i < samples.size(); i++) {
+                Imgproc.GaussianBlur(samples.get(i).source, blurred, FrameWorkspace.BLUR_SIZE, 0);
+
+                long start = System.nanoTime();
+                HandDetector.segmentSkin(blurred, opencv.ycrcb, opencv.mask, opencv);
+                long middle = System.nanoTime();
+                HandDetector.segmentSkin(blurred, lut.ycrcb, lut.mask, lut);
+                long end = System.nanoTime();
+
+                before[i] = middle - start;
+                after[i] = end - middle;
+                if (round == 1) {
+                    Core.compare(opencv.mask, lut.mask, diff, Core.CMP_NE);
+                    if (Core.countNonZero(diff) != 0) mismatches++;
+                }
+            }
+        }
+        blurred.release();
+        diff.release();
+
+        Arrays.sort(before);
+        Arrays.sort(after);
+        double saved = 0;
+        for (int i = 0; i < samples.size(); i++) saved += before[i] - after[i];
+        System.out.printf(Locale.US, "pele cvtColor+inRange    p50=%.2f p95=%.2f p99=%.2f max=%.2f us%n",
+                percentileMicros(before, 0.50), percentileMicros(before, 0.95), percentileMicros(before, 0.99), percentileMicros(before, 1));
+        System.out.printf(Locale.US, "pele tabela              p50=%.2f p95=%.2f p99=%.2f max=%.2f us%n",
+                percentileMicros(after, 0.50), percentileMicros(after, 0.95), percentileMicros(after, 0.99), percentileMicros(after, 1));
+        System.out.printf(Locale.US, "economia média por frame: %.2f us%n", saved / samples.size() / 1e3);
+        System.out.println(mismatches == 0
+                ? "✅ Máscara idêntica em todas as " + samples.size() + " imagens"
+                : "❌ " + mismatches + " imagens com máscara diferente");
+    }
+
+    // ---------------- Par mais próximo: busca par a par x divisão e conquista ----------------
+
+    /**
+     * Mede por frame o tempo da busca do par mais próximo usada no gesto "OK", com a implementação
+     * quadrática antiga e com {@link ContourGeometry#closestPairDistance}, e confere que as duas dão
+     * exatamente a mesma distância em todo o corpus.
+     */
+    private static void compareClosestPair(List<Sample> hands, ContourGeometry geometry) {
+        if (hands.isEmpty()) return;
+        long[] before = new long[hands.size()];
+        long[] after = new long[hands.size()];
+        int mismatches = 0;
+
+        for (int round = 0; round < 2; round++) { // a primeira rodada só aquece
+            for (int i = 0; i < hands.size(); i++) {
+                MatOfPoint contour = hands.get(i).approx;
+
+                long start = System.nanoTime();
+                double expected = bruteForceClosestPair(contour.toList());
+                long middle = System.nanoTime();
+                double actual = geometry.load(contour).closestPairDistance();
+                long end = System.nanoTime();
+
+                before[i] = middle - start;
+                after[i] = end - middle;
+                if (round == 1 && expected != actual) mismatches++;
+            }
+        }
+
+        Arrays.sort(before);
+        Arrays.sort(after);
+        System.out.printf(Locale.US, "closestPair par a par    p50=%.2f p95=%.2f p99=%.2f max=%.2f us%n",
+                percentileMicros(before, 0.50), percentileMicros(before, 0.95), percentileMicros(before, 0.99), percentileMicros(before, 1));
+        System.out.printf(Locale.US, "closestPair O(n log n)   p50=%.2f p95=%.2f p99=%.2f max=%.2f us%n",
+                percentileMicros(after, 0.50), percentileMicros(after, 0.95), percentileMicros(after, 0.99), percentileMicros(after, 1));
+        System.out.println(mismatches == 0
+                ? "✅ Mesma distância mínima em todas as " + hands.size() + " imagens"
+                : "❌ " + mismatches + " imagens com distância mínima diferente");
+    }
+
+    // Implementação original de classifyGesture, mantida como referência
+    private static double bruteForceClosestPair(List<Point> contourPoints) {
+        double minDist = Double.MAX_VALUE;
+        for (int i = 0; i < contourPoints.size(); i++) {
+            for (int j = i + 1; j < contourPoints.size(); j++) {
+                double dx = contourPoints.get(i).x - contourPoints.get(j).x;
+                double dy = contourPoints.get(i).y - contourPoints.get(j).y;
+                double dist = Math.sqrt(dx * dx + dy * dy);
+                if (dist < minDist) minDist = dist;
+            }
+        }
+        return minDist;
+    }
+
+    private static double percentileMicros(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1e3;
+    }
+
+    // ---------------- Saída e gate de regressão ----------------
+
+    private static void writeResults(String out, List<Result> results) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(out))) {
+            writer.println("stage,height,samples,opsPerSec,avgMicros,allocBytesPerOp,allocMBPerSec");
+            for (Result r : results) {
+                writer.printf(Locale.US, "%s,%s,%d,%.2f,%.3f,%.1f,%.3f%n",
+                        r.stage(), r.height(), r.samples(), r.opsPerSec(), r.avgMicros(), r.bytesPerOp(), r.allocMBPerSec());
+            }
+        }
+    }
+
+    private static boolean compareWithBaseline(String baselineFile, List<Result> results, double tolerance) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        List<String> lines = Files.readAllLines(Paths.get(baselineFile));
+        for (String line : lines.subList(1, lines.size())) {
+            String[] cols = line.split(",");
+            baseline.put(cols[0] + "@" + cols[1], Double.parseDouble(cols[4]));
+        }
+
+        boolean ok = true;
+        System.out.println("\nComparação com " + baselineFile + " (tolerância " + (int) (tolerance * 100) + "%):");
+        for (Result r : results) {
+            Double before = baseline.get(r.stage() + "@" + r.height());
+            if (before == null) continue;
+            double change = r.avgMicros() / before - 1;
+            boolean regressed = change > tolerance;
+            ok &= !regressed;
+            System.out.printf(Locale.US, "%s %-24s %-6s %10.2f -> %10.2f us/op (%+.1f%%)%n",
+                    regressed ? "❌" : "✅", r.stage(), r.height(), before, r.avgMicros(), change * 100);
+        }
+        return ok;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,285 @@
+import org.opencv.core.Mat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Loop da webcam dividido em threads ligadas por filas limitadas:
+ * captura → análise → overlay/exibição, com o log saindo pelo {@link MetricsWriter} em background.
+ * <p>
+ * Os frames circulam em slots pré-alocados (um Mat cada) que voltam para a fila livre após a exibição.
+ * A fila de entrada da análise descarta o frame mais antigo quando cheia, então a análise sempre
+ * pega o frame mais recente. Com um {@link VideoFileSource} ou {@link ImageDirectorySource} e o
+ * {@link HeadlessSink} roda sem câmera nem janela, na velocidade máxima.
+ */
+public class HandPipeline {
+
+    static final class FrameSlot {
+        final Mat frame;
+        long sequence;
+        long captureNanos;
+        ContourInfo info;
+        String stableGesture, displayGesture;
+        double fps, usedMemoryMB, cpuLoad, nativeMB;
+        double processedPixels;
+        long latencyNanos;
+
+        FrameSlot(Mat frame) {
+            this.frame = frame;
+        }
+    }
+
+    // Marca fim de stream; atravessa todas as filas
+    private static final FrameSlot END = new FrameSlot(null);
+
+    private final FrameSource source;
+    private final FrameSink sink;
+    private final MetricsWriter metrics;
+    private final FrameAnalyzer analyzer;
+    private final StageMetrics stages;
+
+    private final BlockingQueue<FrameSlot> free;
+    private final BlockingQueue<FrameSlot> toAnalysis;
+    private final BlockingQueue<FrameSlot> toDisplay;
+
+    private volatile boolean running = true;
+    // primeira exceção de um estágio; run() a relança depois do join
+    private volatile Throwable failure;
+
+    // Cada contador é escrito por uma única thread e lido só depois do join
+    private long captured, dropped, logged, rows;
+    private long[] latencies = new long[4096];
+    private long startNanos, endNanos;
+
+    /**
+     * @param analysisDepth capacidade da fila captura → análise (frames descartados além disso)
+     * @param analyzer      estado da análise do stream (escala, ROI, porta de movimento, gestos); o pipeline o libera no fim
+     * @param stages        tempos por estágio e medidores de memória/CPU
+     */
+    public HandPipeline(FrameSource source, FrameSink sink, MetricsWriter metrics, int analysisDepth,
+                        FrameAnalyzer analyzer, StageMetrics stages) {
+        this.source = source;
+        this.sink = sink;
+        this.metrics = metrics;
+        this.analyzer = analyzer;
+        this.stages = stages;
+
+        // slots suficientes para encher a fila da análise e manter um frame em cada estágio
+        int slots = analysisDepth + 3;
+        free = new ArrayBlockingQueue<>(slots);
+        toAnalysis = new ArrayBlockingQueue<>(analysisDepth);
+        toDisplay = new ArrayBlockingQueue<>(slots + 1);
+        for (int i = 0; i < slots; i++) free.add(new FrameSlot(NativeMats.track(new Mat())));
+    }
+
+    public void run() throws InterruptedException {
+        Thread[] stages = {
+                new Thread(this::captureLoop, "capture"),
+                new Thread(this::analysisLoop, "analysis"),
+                new Thread(this::displayLoop, "display")
+        };
+        startNanos = System.nanoTime();
+        for (Thread stage : stages) stage.start();
+        for (Thread stage : stages) stage.join();
+        endNanos = System.nanoTime();
+
+        // depois de uma falha podem sobrar slots nas filas intermediárias
+        for (BlockingQueue<FrameSlot> queue : List.of(free, toAnalysis, toDisplay)) {
+            for (FrameSlot slot : queue) {
+                if (slot != END) NativeMats.release(slot.frame);
+            }
+        }
+
+        Throwable e = failure;
+        if (e instanceof RuntimeException r) throw r;
+        if (e instanceof Error error) throw error;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /** Guarda a exceção de um estágio e para a captura; os outros estágios terminam pelo END. */
+    private synchronized void fail(Throwable e) {
+        if (failure == null) failure = e;
+        else if (failure != e) failure.addSuppressed(e);
+        stop();
+    }
+
+    // ---------------- Estágios ----------------
+
+    private void captureLoop() {
+        FrameSlot slot = null;
+        try {
+            while (running) {
+                slot = acquireSlot();
+                long start = System.nanoTime();
+                if (!source.read(slot.frame)) break;
+                slot.sequence = captured++;
+                slot.captureNanos = stages.lap(StageMetrics.Stage.CAPTURE, start);
+
+                // drop-oldest: se a análise está atrasada o frame mais antigo volta para a fila livre
+                while (!toAnalysis.offer(slot)) {
+                    FrameSlot oldest = toAnalysis.poll();
+                    if (oldest != null) {
+                        dropped++;
+                        free.put(oldest);
+                    }
+                }
+                slot = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        } finally {
+            if (slot != null) free.offer(slot);
+            // sem bloquear: se a análise morreu ninguém mais consome a fila, então descarta o mais antigo
+            while (!toAnalysis.offer(END)) {
+                FrameSlot oldest = toAnalysis.poll();
+                if (oldest != null) free.offer(oldest);
+            }
+        }
+    }
+
+    private FrameSlot acquireSlot() throws InterruptedException {
+        FrameSlot slot = free.poll();
+        if (slot != null) return slot;
+        // Sem slot livre: reaproveita o frame mais antigo que ainda não foi analisado
+        slot = toAnalysis.poll();
+        if (slot != null) {
+            dropped++;
+            return slot;
+        }
+        return free.take();
+    }
+
+    private void analysisLoop() {
+        FrameSlot slot = null;
+        try {
+            while (true) {
+                slot = toAnalysis.take();
+                if (slot == END) break;
+                analyzer.analyze(slot.frame, slot.sequence, slot.captureNanos, stages);
+                slot.info = analyzer.info;
+                slot.stableGesture = analyzer.stableGesture;
+                slot.displayGesture = analyzer.info != null ? analyzer.displayGesture() : null;
+                slot.processedPixels = analyzer.processedPixels;
+                toDisplay.put(slot);
+                slot = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        } finally {
+            if (slot != null && slot != END) free.offer(slot);
+            // toDisplay comporta todos os slots mais o END, então o offer não falha
+            toDisplay.offer(END);
+            analyzer.release();
+        }
+    }
+
+    private void displayLoop() {
+        long lastNanos = System.nanoTime();
+        FrameSlot slot = null;
+        try {
+            while (true) {
+                slot = toDisplay.take();
+                if (slot == END) break;
+
+                long now = System.nanoTime();
+                slot.fps = 1e9 / Math.max(1, now - lastNanos);
+                lastNanos = now;
+                // medidores amostrados pelo StageMetrics, sem consultar MXBeans por frame
+                slot.usedMemoryMB = stages.usedMemoryMB();
+                slot.cpuLoad = stages.cpuLoad();
+                slot.nativeMB = stages.nativeMB();
+
+                if (slot.info != null) {
+                    HandDetector.showTextOnScreen(slot.frame, slot.info.fingerData, slot.displayGesture,
+                            slot.fps, slot.usedMemoryMB, slot.cpuLoad);
+                }
+                long start = stages.lap(StageMetrics.Stage.OVERLAY, now);
+
+                if (!sink.show(slot.frame)) stop();
+                long shown = stages.lap(StageMetrics.Stage.DISPLAY, start);
+
+                slot.latencyNanos = shown - slot.captureNanos;
+                stages.record(StageMetrics.Stage.FRAME, slot.latencyNanos);
+                log(slot);
+                stages.lap(StageMetrics.Stage.LOG, shown);
+                slot.info = null;
+                slot.stableGesture = null;
+                slot.displayGesture = null;
+                free.put(slot);
+                slot = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            fail(e);
+            // continua devolvendo os slots até o END para a captura não ficar presa esperando slot livre
+            try {
+                while (slot != END) {
+                    if (slot != null) free.put(slot);
+                    slot = toDisplay.take();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void log(FrameSlot slot) {
+        if (slot.info != null) {
+            ContourInfo info = slot.info;
+            metrics.beginRow()
+                    .put(rows++).put(info.fingerData.count).put(info.maxArea).put(info.cx).put(info.cy)
+                    .put(info.convexDefects).put(info.fingerData.avgAngle)
+                    .put(slot.fps).put(slot.usedMemoryMB).put(slot.cpuLoad).put(info.gesture)
+                    .put(slot.processedPixels).put(slot.stableGesture != null ? slot.stableGesture : "")
+                    .put(slot.nativeMB)
+                    .endRow();
+        }
+
+        if (logged == latencies.length) latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        latencies[(int) logged++] = slot.latencyNanos;
+    }
+
+    // ---------------- Resultado ----------------
+
+    public void printReport() {
+        double seconds = (endNanos - startNanos) / 1e9;
+        long[] sorted = Arrays.copyOf(latencies, (int) logged);
+        Arrays.sort(sorted);
+        System.out.printf(Locale.US,
+                "Frames: %d capturados, %d processados, %d descartados | %.2f FPS | latência ms p50=%.2f p95=%.2f max=%.2f%n",
+                captured, logged, dropped, logged / seconds,
+                percentileMs(sorted, 0.50), percentileMs(sorted, 0.95), percentileMs(sorted, 1.0));
+        RoiTracker roiTracker = analyzer.roiTracker;
+        if (roiTracker != null) {
+            System.out.printf(Locale.US,
+                    "ROI: %.1f%% dos frames só na região | %.0f px/frame (%.1f%% do frame inteiro)%n",
+                    roiTracker.roiRatio() * 100, roiTracker.avgPixelsPerFrame(), roiTracker.pixelRatio() * 100);
+        }
+        GestureTracker gestures = analyzer.gestures;
+        if (gestures != null) {
+            System.out.printf(Locale.US, "Gestos: %d eventos | classificação reaproveitada em %.1f%% dos frames com mão%n",
+                    gestures.events(), gestures.reuseRatio() * 100);
+        }
+        if (analyzer.motionGate != null) {
+            System.out.printf(Locale.US, "Porta de movimento: %.1f%% dos frames sem detecção%n",
+                    analyzer.motionGate.skipRatio() * 100);
+        }
+    }
+
+    static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
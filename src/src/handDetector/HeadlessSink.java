@@ -0,0 +1,14 @@
+import org.opencv.core.Mat;
+
+/** Descarta os frames: sem {@code imshow}/{@code waitKey}, para servidores sem display e testes de throughput. */
+public class HeadlessSink implements FrameSink {
+
+    @Override
+    public boolean show(Mat frame) {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,54 @@
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/** Pasta de imagens lidas em ordem alfabética, uma por frame. Arquivos ilegíveis são pulados. */
+public class ImageDirectorySource implements FrameSource {
+    private final Path dir;
+    private final List<Path> files;
+    private int next;
+
+    public ImageDirectorySource(Path dir) throws IOException {
+        this.dir = dir;
+        try (Stream<Path> paths = Files.list(dir)) {
+            files = paths.filter(Files::isRegularFile).filter(ImageDirectorySource::isImage).sorted().toList();
+        }
+    }
+
+    private static boolean isImage(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png")
+                || name.endsWith(".bmp") || name.endsWith(".webp");
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        while (next < files.size()) {
+            Path file = files.get(next++);
+            Mat image = Imgcodecs.imread(file.toString());
+            if (image.empty()) {
+                System.out.println("❌ Erro ao carregar imagem: " + file);
+                continue;
+            }
+            image.copyTo(frame);
+            image.release();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return dir + " (" + files.size() + " imagens)";
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,228 @@
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leitura antecipada de uma lista de imagens: leitores (virtual threads) leem os próximos arquivos
+ * com NIO em buffers diretos reaproveitados, um pool de decodificadores roda o
+ * {@code Imgcodecs.imdecode} direto sobre esses buffers (o Mat só aponta para a memória do buffer,
+ * sem cópia para o heap) e os Mats prontos ficam numa fila limitada que os workers de análise
+ * consomem com {@link #take()}. Assim a espera de disco/rede e a decodificação do JPEG acontecem
+ * enquanto os workers analisam as imagens anteriores.
+ * <p>
+ * A memória é limitada pelo número de buffers ({@code readers + decoders}) mais a profundidade da
+ * fila de Mats prontos. O {@link Filter} roda no leitor, com os bytes já em memória, e pode dispensar
+ * a decodificação (ex.: o hash do arquivo já está no {@link ResultCache}).
+ * <p>
+ * Cada arquivo gera exatamente um {@link Item}, na ordem em que ficou pronto, mesmo quando a leitura,
+ * o filtro ou o {@code imdecode} lançam exceção (o Item sai com {@code error}).
+ */
+public class ImagePrefetcher implements AutoCloseable {
+
+    /** Decide, com o conteúdo já lido, se o arquivo precisa ser decodificado. */
+    public interface Filter {
+        boolean needsDecode(int index, Path path, ByteBuffer bytes);
+    }
+
+    /**
+     * Um arquivo da lista. {@code image} é null se ele foi dispensado pelo filtro ({@code skipped})
+     * ou não pôde ser lido/decodificado ({@code error}). O Mat passa a ser do consumidor, que o
+     * libera com {@link NativeMats#release}.
+     */
+    public record Item(int index, Path path, Mat image, long decodeNanos, boolean skipped, String error) {
+    }
+
+    private final List<Path> files;
+    private final Filter filter;
+    private final int depth;
+    private final BlockingQueue<Item> ready;
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final ExecutorService readers;
+    private final ExecutorService decoders;
+    private final AtomicInteger nextToRead = new AtomicInteger();
+    private final AtomicInteger taken = new AtomicInteger();
+
+    // métricas
+    final LatencyHistogram readTime = new LatencyHistogram();
+    final LatencyHistogram decodeTime = new LatencyHistogram();
+    final LatencyHistogram waitTime = new LatencyHistogram();   // consumidor bloqueado no take
+    private final AtomicLong depthSum = new AtomicLong();
+    private final AtomicInteger depthMax = new AtomicInteger();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    /**
+     * @param readers  leituras simultâneas (mais que núcleos faz sentido em discos de rede)
+     * @param decoders threads de {@code imdecode}
+     * @param depth    máximo de imagens decodificadas esperando análise
+     * @param filter   pode ser null: tudo é decodificado
+     */
+    public ImagePrefetcher(List<Path> files, int readers, int decoders, int depth, Filter filter) {
+        this.files = files;
+        this.filter = filter;
+        this.depth = depth;
+        this.ready = new ArrayBlockingQueue<>(depth);
+        this.buffers = new LinkedBlockingQueue<>();
+        for (int i = 0; i < readers + decoders; i++) buffers.add(ByteBuffer.allocateDirect(1 << 20));
+
+        AtomicInteger ids = new AtomicInteger();
+        this.decoders = Executors.newFixedThreadPool(decoders, r -> {
+            Thread thread = new Thread(r, "image-decoder-" + ids.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < readers; i++) this.readers.submit(this::readLoop);
+    }
+
+    private void readLoop() {
+        try {
+            int index;
+            while ((index = nextToRead.getAndIncrement()) < files.size()) {
+                Path path = files.get(index);
+                ByteBuffer buffer = buffers.take();
+                try {
+                    long start = System.nanoTime();
+                    buffer = read(path, buffer);
+                    readTime.record(System.nanoTime() - start);
+                    bytesRead.addAndGet(buffer.remaining());
+                } catch (IOException | RuntimeException e) {
+                    buffers.add(buffer);
+                    ready.put(new Item(index, path, null, 0, false, e.toString()));
+                    continue;
+                }
+
+                // uma exceção do filtro (ex.: hash ou cache) vira erro do arquivo; sem o Item o take() esperaria para sempre
+                boolean needsDecode;
+                try {
+                    needsDecode = filter == null || filter.needsDecode(index, path, buffer.duplicate());
+                } catch (RuntimeException e) {
+                    buffers.add(buffer);
+                    ready.put(new Item(index, path, null, 0, false, e.toString()));
+                    continue;
+                }
+                if (!needsDecode) {
+                    buffers.add(buffer);
+                    ready.put(new Item(index, path, null, 0, true, null));
+                    continue;
+                }
+                int i = index;
+                ByteBuffer bytes = buffer;
+                decoders.execute(() -> decode(i, path, bytes));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Lê o arquivo inteiro no buffer, trocando por um maior se não couber. Devolve pronto para leitura. */
+    private static ByteBuffer read(Path path, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Arquivo grande demais: " + path);
+            if (buffer.capacity() < size) buffer = ByteBuffer.allocateDirect(Integer.highestOneBit((int) size - 1) << 1);
+            buffer.clear().limit((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read pode devolver menos que o pedido (ex.: sistemas de arquivos de rede)
+            }
+            return buffer.flip();
+        }
+    }
+
+    private void decode(int index, Path path, ByteBuffer bytes) {
+        Item item;
+        long start = System.nanoTime();
+        Mat encoded = null;
+        try {
+            // wrapper sem cópia: aponta para a memória do buffer direto
+            encoded = new Mat(1, Math.max(1, bytes.remaining()), CvType.CV_8UC1, bytes);
+            Mat image = NativeMats.track(Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_COLOR), "ImagePrefetcher.decode");
+            long nanos = System.nanoTime() - start;
+            decodeTime.record(nanos);
+            if (image.empty()) {
+                NativeMats.release(image);
+                item = new Item(index, path, null, nanos, false, "imdecode não reconheceu o formato");
+            } else {
+                item = new Item(index, path, image, nanos, false, null);
+            }
+        } catch (RuntimeException e) {
+            // ex.: CvException de um arquivo corrompido; o arquivo ainda precisa do seu Item
+            item = new Item(index, path, null, System.nanoTime() - start, false, e.toString());
+        } finally {
+            if (encoded != null) encoded.release();
+            buffers.add(bytes);
+        }
+        try {
+            ready.put(item);
+        } catch (InterruptedException e) {
+            NativeMats.release(item.image());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Próximo arquivo pronto, bloqueando enquanto a leitura antecipada não entrega; {@code null}
+     * depois que todos os arquivos foram entregues. Pode ser chamado de vários workers.
+     */
+    public Item take() throws InterruptedException {
+        if (taken.getAndIncrement() >= files.size()) return null;
+        int queued = ready.size();
+        depthSum.addAndGet(queued);
+        depthMax.accumulateAndGet(queued, Math::max);
+
+        long start = System.nanoTime();
+        Item item = ready.take();
+        waitTime.record(System.nanoTime() - start);
+        return item;
+    }
+
+    /** Fila média vista pelos consumidores; perto de zero indica análise esperando por I/O. */
+    double averageDepth() {
+        int n = Math.min(taken.get(), files.size());
+        return n == 0 ? 0 : (double) depthSum.get() / n;
+    }
+
+    void printReport() {
+        LatencyHistogram.Snapshot read = readTime.snapshot(), decode = decodeTime.snapshot(), wait = waitTime.snapshot();
+        System.out.printf(Locale.US, "Leitura antecipada: fila média %.1f / máx %d (limite %d) | %.1f MB lidos%n",
+                averageDepth(), depthMax.get(), depth, bytesRead.get() / 1024.0 / 1024.0);
+        System.out.printf(Locale.US, "  leitura  p50=%.2f p95=%.2f max=%.2f ms%n",
+                read.percentile(0.50) / 1e6, read.percentile(0.95) / 1e6, read.max / 1e6);
+        System.out.printf(Locale.US, "  decode   p50=%.2f p95=%.2f max=%.2f ms%n",
+                decode.percentile(0.50) / 1e6, decode.percentile(0.95) / 1e6, decode.max / 1e6);
+        System.out.printf(Locale.US, "  análise esperando imagem: %.2f s no total (p95=%.2f ms por take)%n",
+                wait.sum / 1e9, wait.percentile(0.95) / 1e6);
+    }
+
+    /** Para leitores e decodificadores e libera os Mats que ninguém consumiu. */
+    @Override
+    public void close() {
+        readers.shutdownNow();
+        decoders.shutdownNow();
+        try {
+            readers.awaitTermination(10, TimeUnit.SECONDS);
+            decoders.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Item left;
+        while ((left = ready.poll()) != null) {
+            NativeMats.release(left.image());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de durações em nanossegundos no estilo HDR: faixas log-lineares com 64 sub-faixas por
+ * potência de 2, então qualquer valor é guardado com erro relativo abaixo de 1/64 (~1,6%) sem
+ * limite superior. Ocupa ~30 KB fixos e {@link #record(long)} não aloca: um incremento atômico
+ * no bucket, o que permite gravar de várias threads e ler de outra sem parar o loop.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;             // 64
+    private static final int BUCKETS = SUB_COUNT * (64 - SUB_BITS);  // cobre todo o long positivo
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        total.incrementAndGet();
+        sum.addAndGet(nanos);
+        if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);
+    }
+
+    // Valores < 128 ficam exatos; acima disso guarda os 7 bits mais altos
+    static int index(long value) {
+        if (value < 2 * SUB_COUNT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return SUB_COUNT * shift + (int) (value >>> shift);
+    }
+
+    /** Maior valor que cai no bucket (o percentil nunca é subestimado). */
+    static long upperBound(int index) {
+        if (index < 2 * SUB_COUNT) return index;
+        int shift = index / SUB_COUNT - 1;
+        long sub = index - (long) SUB_COUNT * shift;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /** Cópia dos contadores; os valores podem estar um registro atrasados em relação às outras threads. */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        return new Snapshot(copy, total.get(), sum.get(), max.get());
+    }
+
+    /** Estado do histograma num instante; {@link #minus} dá só o intervalo entre dois snapshots. */
+    public static final class Snapshot {
+        private final long[] counts;
+        final long count;
+        final long sum;
+        final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Diferença para um snapshot anterior. O máximo do intervalo vem do maior bucket não vazio,
+         * já que o máximo exato só existe para o total.
+         */
+        Snapshot minus(Snapshot previous) {
+            long[] diff = new long[counts.length];
+            long intervalMax = 0;
+            for (int i = 0; i < diff.length; i++) {
+                diff[i] = counts[i] - previous.counts[i];
+                if (diff[i] > 0) intervalMax = Math.min(upperBound(i), max);
+            }
+            return new Snapshot(diff, count - previous.count, sum - previous.sum, intervalMax);
+        }
+
+        /** @param p percentil entre 0 e 1 */
+        long percentile(double p) {
+            if (count == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+
+        double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+}
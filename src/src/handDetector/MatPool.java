@@ -0,0 +1,87 @@
+import org.opencv.core.Mat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mats temporários de um frame, devolvidos ao pool no fim do frame em vez de alocados e largados
+ * para o GC.
+ * <p>
+ * {@link #open()} abre o {@link Scope} do frame; {@link Scope#mat()} empresta um Mat do pool (os
+ * buffers ficam com o tamanho do último uso, então no mesmo tipo de frame o {@code create} interno
+ * do OpenCV não realoca) e {@link Scope#adopt} registra Mats criados pelo OpenCV (submats, saídas de
+ * funções) para serem liberados no {@code close}. Os Mats do pool são registrados no
+ * {@link NativeMats}.
+ * <pre>
+ * try (MatPool.Scope frame = pool.open()) {
+ *     Mat gray = frame.mat();
+ *     Mat region = frame.adopt(gray.submat(roi));
+ * }
+ * </pre>
+ * Não é thread-safe: um pool por thread de análise, como o {@link FrameWorkspace}.
+ */
+public class MatPool implements AutoCloseable {
+    private final ArrayDeque<Mat> free = new ArrayDeque<>();
+    private final String site;
+    private final Scope scope = new Scope();
+    private int created;
+
+    /** @param site nome dos Mats do pool no relatório do {@link NativeMats} */
+    public MatPool(String site) {
+        this.site = site;
+    }
+
+    /** Abre o escopo do frame; o escopo é o mesmo objeto a cada frame e não pode ser aninhado. */
+    public Scope open() {
+        if (scope.open) throw new IllegalStateException("Escopo do frame anterior não foi fechado");
+        scope.open = true;
+        return scope;
+    }
+
+    /** Mats criados desde o início; estável depois dos primeiros frames. */
+    int created() {
+        return created;
+    }
+
+    private Mat take() {
+        Mat mat = free.pollLast();
+        if (mat != null) return mat;
+        created++;
+        return NativeMats.track(new Mat(), site);
+    }
+
+    public class Scope implements AutoCloseable {
+        // devolvidos na ordem inversa: no próximo frame cada mat() recebe o mesmo buffer do anterior
+        private final List<Mat> borrowed = new ArrayList<>();
+        private final List<Mat> adopted = new ArrayList<>();
+        private boolean open;
+
+        public Mat mat() {
+            Mat mat = take();
+            borrowed.add(mat);
+            return mat;
+        }
+
+        public <T extends Mat> T adopt(T mat) {
+            adopted.add(mat);
+            return mat;
+        }
+
+        @Override
+        public void close() {
+            for (int i = borrowed.size() - 1; i >= 0; i--) free.addLast(borrowed.get(i));
+            borrowed.clear();
+            for (Mat mat : adopted) NativeMats.release(mat);
+            adopted.clear();
+            open = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scope.open) scope.close();
+        for (Mat mat : free) NativeMats.release(mat);
+        free.clear();
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritor de CSV em background para métricas por frame.
+ * <p>
+ * O produtor (loop de frames) grava valores primitivos num ring buffer pré-alocado, sem lock e sem
+ * formatação; uma thread daemon drena o buffer, formata os números (mesmo texto do
+ * {@code String.format} com {@code Locale.US}, ver {@link #appendFixed}) e escreve em blocos, dando flush no máximo a cada {@code flushIntervalMillis}.
+ * Suporta um único produtor e um único consumidor.
+ *
+ * <pre>
+ * writer.beginRow().put(frame).put(area).put(gesture).endRow();
+ * </pre>
+ * Opcionalmente a mesma thread grava cada linha também num {@link ColumnarWriter} (formato
+ * binário {@code .hcol}), com o mesmo arredondamento do CSV ({@link #round}).
+ */
+public class MetricsWriter implements AutoCloseable {
+
+    /** Coluna de texto; demais valores de {@code decimals} indicam casas decimais (0 = inteiro). */
+    public static final int TEXT = -1;
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final Writer out;
+    private final ColumnarWriter columnar;
+    private final int[] decimals;
+    private final int columns;
+    private final int capacity;
+    private final long flushIntervalNanos;
+
+    // Ring buffer: uma linha ocupa 'columns' posições em cada array
+    private final double[] numbers;
+    private final String[] texts;
+
+    private final AtomicLong head = new AtomicLong(); // próxima linha a consumir
+    private final AtomicLong tail = new AtomicLong(); // próxima linha a publicar
+
+    private final Thread consumer;
+    private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE * 2);
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    // Estado do produtor
+    private long row;
+    private int column;
+
+    /**
+     * @param capacity            linhas no buffer; com o buffer cheio o produtor espera
+     * @param flushIntervalMillis intervalo máximo entre flushes do arquivo
+     */
+    public MetricsWriter(Writer out, String header, int[] decimals, int capacity, long flushIntervalMillis) {
+        this(out, header, decimals, capacity, flushIntervalMillis, null);
+    }
+
+    /**
+     * @param columnar pode ser null; se não for, recebe as mesmas linhas e é fechado junto
+     */
+    public MetricsWriter(Writer out, String header, int[] decimals, int capacity, long flushIntervalMillis,
+                         ColumnarWriter columnar) {
+        this.out = out;
+        this.columnar = columnar;
+        this.decimals = decimals.clone();
+        this.columns = decimals.length;
+        this.capacity = capacity;
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000L;
+        this.numbers = new double[capacity * columns];
+        this.texts = new String[capacity * columns];
+
+        chunk.append(header).append('\n');
+
+        consumer = new Thread(this::drainLoop, "metrics-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    // ---------------- Produtor ----------------
+
+    public MetricsWriter beginRow() {
+        row = tail.get();
+        // buffer cheio: espera o consumidor liberar espaço
+        while (row - head.get() >= capacity) {
+            if (closed) throw new IllegalStateException("MetricsWriter fechado");
+            // a thread de escrita parou com erro (ex.: disco cheio) e nunca vai liberar espaço
+            if (failure != null) throw new UncheckedIOException(failure);
+            LockSupport.parkNanos(100_000);
+        }
+        column = 0;
+        return this;
+    }
+
+    public MetricsWriter put(double value) {
+        numbers[offset()] = value;
+        return this;
+    }
+
+    public MetricsWriter put(String value) {
+        texts[offset()] = value;
+        return this;
+    }
+
+    public void endRow() {
+        if (column != columns) throw new IllegalStateException("Linha com " + column + " de " + columns + " colunas");
+        tail.lazySet(row + 1);
+    }
+
+    private int offset() {
+        if (column >= columns) throw new IllegalStateException("Linha com mais de " + columns + " colunas");
+        return (int) (row % capacity) * columns + column++;
+    }
+
+    // ---------------- Consumidor ----------------
+
+    private void drainLoop() {
+        long lastFlush = System.nanoTime();
+        try {
+            while (true) {
+                boolean finishing = closed;
+                int drained = drain();
+
+                long now = System.nanoTime();
+                if (chunk.length() >= CHUNK_SIZE || (chunk.length() > 0 && now - lastFlush >= flushIntervalNanos)) {
+                    out.append(chunk);
+                    chunk.setLength(0);
+                }
+                if (now - lastFlush >= flushIntervalNanos) {
+                    out.flush();
+                    lastFlush = now;
+                }
+
+                if (finishing && head.get() == tail.get()) break;
+                if (drained == 0) LockSupport.parkNanos(1_000_000);
+            }
+            out.append(chunk);
+            chunk.setLength(0);
+            out.flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private int drain() throws IOException {
+        long start = head.get();
+        long end = tail.get();
+        for (long r = start; r < end; r++) {
+            int base = (int) (r % capacity) * columns;
+            if (columnar != null) columnar.appendRow(numbers, texts, base);
+            for (int c = 0; c < columns; c++) {
+                if (c > 0) chunk.append(',');
+                int d = decimals[c];
+                if (d == TEXT) {
+                    chunk.append(texts[base + c]);
+                    texts[base + c] = null;
+                } else {
+                    appendFixed(chunk, numbers[base + c], d);
+                }
+            }
+            chunk.append('\n');
+            if (chunk.length() >= CHUNK_SIZE) {
+                head.lazySet(r + 1);
+                return (int) (r + 1 - start);
+            }
+        }
+        head.lazySet(end);
+        return (int) (end - start);
+    }
+
+    /**
+     * Mesmo texto de {@code String.format(Locale.US, "%.Nf", value)}: como o {@code Formatter},
+     * arredonda HALF_UP a representação decimal do double (1.005 → "1.01"), não o produto binário
+     * {@code value * 10^N}.
+     */
+    static void appendFixed(StringBuilder sb, double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            sb.append(value);
+            return;
+        }
+        // o sinal vem do bit, como no %.Nf: -0.001 com 2 casas vira "-0.00"
+        if (Double.doubleToRawLongBits(value) < 0) sb.append('-');
+        sb.append(round(Math.abs(value), decimals).toPlainString());
+    }
+
+    /**
+     * Arredondamento do CSV, compartilhado com o {@link ColumnarWriter}: HALF_UP sobre a
+     * representação decimal mais curta do double ({@link Double#toString}).
+     */
+    static BigDecimal round(double value, int decimals) {
+        return BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP);
+    }
+
+    /** Escreve o que resta no buffer, dá flush e para a thread de escrita. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (columnar != null) columnar.close();
+        if (failure != null) throw failure;
+    }
+}
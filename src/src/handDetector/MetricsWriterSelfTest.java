@@ -0,0 +1,164 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Confere que o {@link MetricsWriter} escreve o mesmo texto de antes da escrita em background:
+ * <ul>
+ *     <li>{@code appendFixed} contra {@code String.format(Locale.US, "%.Nf")} em milhões de doubles
+ *     aleatórios (várias magnitudes, 0 a 4 casas, negativos) e em empates conhecidos como 1.005 e 2.675;</li>
+ *     <li>o {@code .hcol} gravado junto ({@link ColumnarWriter}) tem em cada célula os mesmos dígitos
+ *     do texto do CSV, e o {@link ColumnarReader} devolve o mesmo double que o texto;</li>
+ *     <li>com o disco "cheio" (um {@code Writer} que falha) o produtor recebe a exceção em vez de
+ *     esperar para sempre pelo buffer.</li>
+ * </ul>
+ * Não usa OpenCV. Sai com código 1 se alguma verificação falhar.
+ *
+ * <pre>
+ * MetricsWriterSelfTest [valores]
+ * </pre>
+ */
+public class MetricsWriterSelfTest {
+
+    static final double[] TIES = {
+            1.005, 2.675, 0.125, 2.625, 0.00125, 1.115, 0.045, 8.345, 1.0005, 0.5, 1.5, 2.5,
+            -1.005, -2.675, -0.125, -0.001, -0.0, 0.0, 1e-9, 123456.785, 9.995, 99.995, 0.995
+    };
+
+    public static void main(String[] args) throws Exception {
+        int values = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        boolean ok = checkFormat(values) & checkColumnar(values / 10) & checkFailure();
+        System.out.println(ok ? "✅ MetricsWriter ok" : "❌ MetricsWriter com diferenças");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean checkFormat(int values) {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder sb = new StringBuilder();
+        int mismatches = 0;
+        for (double value : TIES) {
+            for (int d = 0; d <= 4; d++) mismatches += compare(sb, value, d);
+        }
+        for (int i = 0; i < values; i++) {
+            int d = random.nextInt(5);
+            double value;
+            switch (i % 3) {
+                // magnitudes de 1e-4 a 1e6, como áreas, coordenadas, FPS e carga de CPU
+                case 0 -> value = random.nextDouble() * Math.pow(10, random.nextInt(-4, 7));
+                // empates exatos no texto: k / 10^(d+1) com último dígito 5
+                case 1 -> value = Double.parseDouble((random.nextInt(2_000_000) * 10 + 5) + "e-" + (d + 1));
+                default -> value = Double.longBitsToDouble(random.nextLong()) % 1e7;
+            }
+            if (random.nextBoolean()) value = -value;
+            mismatches += compare(sb, value, d);
+        }
+        System.out.printf(Locale.US, "%s %d valores contra %%.Nf: %d diferenças%n",
+                mismatches == 0 ? "✅" : "❌", values + TIES.length * 5, mismatches);
+        return mismatches == 0;
+    }
+
+    private static int compare(StringBuilder sb, double value, int decimals) {
+        if (Double.isNaN(value)) return 0;
+        sb.setLength(0);
+        MetricsWriter.appendFixed(sb, value, decimals);
+        String expected = String.format(Locale.US, "%." + decimals + "f", value);
+        if (expected.contentEquals(sb)) return 0;
+        System.out.println("  ❌ " + value + " com " + decimals + " casas: " + sb + " (esperado " + expected + ")");
+        return 1;
+    }
+
+    private static boolean checkColumnar(int rows) throws IOException {
+        Path dir = Files.createTempDirectory("metrics-selftest");
+        Path csv = dir.resolve("performance.csv"), hcol = dir.resolve("performance.hcol");
+        String[] names = CsvSchemas.FRAME_HEADER.split(",");
+        int[] decimals = CsvSchemas.FRAME_DECIMALS;
+        SplittableRandom random = new SplittableRandom(7);
+        try (MetricsWriter writer = new MetricsWriter(new FileWriter(csv.toFile()), CsvSchemas.FRAME_HEADER,
+                decimals, 4096, 1000, ColumnarWriter.forCsvSchema(hcol, CsvSchemas.FRAME_HEADER, decimals))) {
+            for (int r = 0; r < rows; r++) {
+                writer.beginRow();
+                for (int c = 0; c < names.length; c++) {
+                    if (decimals[c] == MetricsWriter.TEXT) {
+                        writer.put(random.nextBoolean() ? "Open Hand" : "Fist");
+                    } else if (r < TIES.length) {
+                        writer.put(TIES[r]);
+                    } else {
+                        double value = random.nextDouble() * Math.pow(10, random.nextInt(-3, 5));
+                        writer.put(random.nextInt(10) == 0 ? -value : value);
+                    }
+                }
+                writer.endRow();
+            }
+        }
+
+        int mismatches = 0;
+        List<String> lines = Files.readAllLines(csv);
+        try (ColumnarReader reader = new ColumnarReader(hcol)) {
+            for (int c = 0; c < names.length; c++) {
+                int[] digits = new int[rows];
+                int[] next = {0};
+                reader.forEachInt(c, v -> digits[next[0]++] = v);
+                String[] dictionary = decimals[c] == MetricsWriter.TEXT ? reader.dictionary(c) : null;
+                double[] doubles = dictionary == null ? reader.readDoubles(c) : null;
+                for (int r = 0; r < rows; r++) {
+                    String text = lines.get(r + 1).split(",", -1)[c];
+                    boolean same = dictionary != null
+                            ? dictionary[digits[r]].equals(text)
+                            : BigDecimal.valueOf(digits[r], decimals[c]).equals(new BigDecimal(text))
+                            && doubles[r] == Double.parseDouble(text);
+                    if (!same && mismatches++ < 10) {
+                        System.out.println("  ❌ linha " + (r + 1) + " " + names[c] + ": CSV " + text + ", .hcol "
+                                + (dictionary != null ? dictionary[digits[r]] : doubles[r]));
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(hcol);
+            Files.deleteIfExists(dir);
+        }
+        System.out.printf(Locale.US, "%s %d linhas CSV x .hcol: %d células diferentes%n",
+                mismatches == 0 ? "✅" : "❌", rows, mismatches);
+        return mismatches == 0;
+    }
+
+    private static boolean checkFailure() throws InterruptedException {
+        Writer full = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("No space left on device");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        boolean[] thrown = {false};
+        Thread producer = new Thread(() -> {
+            MetricsWriter writer = new MetricsWriter(full, "a", new int[]{0}, 4, 1);
+            try {
+                for (int i = 0; i < 1_000_000; i++) writer.beginRow().put(i).endRow();
+            } catch (UncheckedIOException e) {
+                thrown[0] = true;
+            }
+        });
+        producer.start();
+        producer.join(5000);
+        boolean ok = thrown[0] && !producer.isAlive();
+        System.out.println((ok ? "✅" : "❌") + " escrita com falha de disco: "
+                + (ok ? "produtor recebeu a exceção" : "produtor não terminou"));
+        if (producer.isAlive()) producer.interrupt();
+        return ok;
+    }
+}
@@ -0,0 +1,87 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Decide se um frame precisa passar pela detecção completa comparando uma miniatura em tons de
+ * cinza com a do último frame analisado.
+ * <p>
+ * O frame é reduzido para {@code width} px de largura, convertido para cinza e subtraído da
+ * referência; se a fração de pixels com diferença acima de {@code pixelThreshold} passar de
+ * {@code minChangedFraction}, houve movimento. A referência só é trocada quando o frame é analisado,
+ * então um movimento lento acumula diferença até disparar. A cada {@code maxSkip} frames pulados o
+ * frame é analisado de qualquer forma (mudança de luz, câmera reajustando).
+ * Os buffers são reaproveitados; uma instância por stream.
+ */
+public class MotionGate {
+    private final int width;
+    private final double pixelThreshold;
+    private final double minChangedFraction;
+    private final int maxSkip;
+
+    private Mat small = NativeMats.track(new Mat()), reference = NativeMats.track(new Mat());
+    private final Mat resized = NativeMats.track(new Mat()), diff = NativeMats.track(new Mat());
+    private boolean hasReference;
+    private int skipStreak;
+
+    private long frames, skipped;
+
+    /**
+     * @param width              largura da miniatura comparada
+     * @param pixelThreshold     diferença de cinza (0-255) para um pixel contar como alterado
+     * @param minChangedFraction fração de pixels alterados a partir da qual o frame é analisado
+     * @param maxSkip            máximo de frames seguidos sem análise
+     */
+    public MotionGate(int width, double pixelThreshold, double minChangedFraction, int maxSkip) {
+        this.width = width;
+        this.pixelThreshold = pixelThreshold;
+        this.minChangedFraction = minChangedFraction;
+        this.maxSkip = maxSkip;
+    }
+
+    /** Miniatura de 64 px, diferença > 20 níveis em mais de 1% dos pixels, no máximo 30 frames pulados. */
+    public MotionGate() {
+        this(64, 20, 0.01, 30);
+    }
+
+    /** @return true se o frame deve ser analisado; nesse caso ele vira a nova referência */
+    boolean moved(Mat frame) {
+        frames++;
+        int height = Math.max(1, (int) Math.round(frame.rows() * (double) width / frame.cols()));
+        Imgproc.resize(frame, resized, new Size(width, height), 0, 0, Imgproc.INTER_AREA);
+        Imgproc.cvtColor(resized, small, Imgproc.COLOR_BGR2GRAY);
+
+        boolean moved = !hasReference || skipStreak >= maxSkip || !small.size().equals(reference.size());
+        if (!moved) {
+            Core.absdiff(small, reference, diff);
+            Imgproc.threshold(diff, diff, pixelThreshold, 255, Imgproc.THRESH_BINARY);
+            moved = Core.countNonZero(diff) > minChangedFraction * small.total();
+        }
+
+        if (moved) {
+            // troca os buffers em vez de copiar: a miniatura atual vira a referência
+            Mat previous = reference;
+            reference = small;
+            small = previous;
+            hasReference = true;
+            skipStreak = 0;
+        } else {
+            skipStreak++;
+            skipped++;
+        }
+        return moved;
+    }
+
+    /** Fração dos frames que pularam a detecção. */
+    double skipRatio() {
+        return frames == 0 ? 0 : (double) skipped / frames;
+    }
+
+    void release() {
+        NativeMats.release(small);
+        NativeMats.release(reference);
+        NativeMats.release(resized);
+        NativeMats.release(diff);
+    }
+}
@@ -0,0 +1,165 @@
+import org.opencv.core.Mat;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro dos Mats com memória nativa de longa duração (buffers de workspace, slots de frame,
+ * imagens decodificadas): mede quantos bytes nativos estão vivos e aponta vazamentos.
+ * <p>
+ * O heap da JVM não vê os dados de um Mat, só o cabeçalho Java de poucos bytes; sem
+ * {@code release()} os dados só voltam quando o GC finaliza o cabeçalho, o que pode demorar
+ * indefinidamente. Um Mat registrado com {@link #track} deve ser liberado com {@link #release}:
+ * <ul>
+ *     <li>se o GC coletar o Mat antes disso, o local de alocação é contado como vazamento;</li>
+ *     <li>{@link #printReport()} lista os Mats ainda vivos, agrupados pelo local de alocação.</li>
+ * </ul>
+ * {@link #sample()} (chamado pelo {@link StageMetrics} a cada leitura de memória) soma
+ * {@code total() * elemSize()} dos Mats vivos; a leitura é feita fora da thread dona do Mat e é
+ * aproximada se ele estiver sendo realocado no mesmo instante. Thread-safe.
+ */
+public final class NativeMats {
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final ReferenceQueue<Mat> COLLECTED = new ReferenceQueue<>();
+    // chave: endereço do cabeçalho nativo (Mat.nativeObj), único enquanto o Mat Java existir
+    private static final Map<Long, Entry> LIVE = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> LEAKED = new ConcurrentHashMap<>();
+
+    private static volatile long liveBytes, peakBytes;
+    private static final AtomicLong leaks = new AtomicLong();
+
+    private static final class Entry extends WeakReference<Mat> {
+        final long address;
+        final String site;
+
+        Entry(Mat mat, String site) {
+            super(mat, COLLECTED);
+            this.address = mat.nativeObj;
+            this.site = site;
+        }
+    }
+
+    private NativeMats() {
+    }
+
+    /** Registra o Mat com o local da chamada (classe.método:linha) como local de alocação. */
+    public static <T extends Mat> T track(T mat) {
+        String site = WALKER.walk(frames -> frames
+                .filter(f -> f.getDeclaringClass() != NativeMats.class && f.getDeclaringClass() != MatPool.class)
+                .findFirst()
+                .map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("?"));
+        return track(mat, site);
+    }
+
+    /** Como {@link #track(Mat)}, com o local já conhecido (ex.: caminho quente, sem percorrer a pilha). */
+    public static <T extends Mat> T track(T mat, String site) {
+        Entry previous = LIVE.put(mat.nativeObj, new Entry(mat, site));
+        // endereço reaproveitado: o cabeçalho anterior já foi finalizado sem release
+        if (previous != null) leaked(previous);
+        return mat;
+    }
+
+    /** Libera os dados do Mat e o tira do registro. Aceita Mats não registrados e null. */
+    public static void release(Mat mat) {
+        if (mat == null) return;
+        mat.release();
+        Entry entry = LIVE.remove(mat.nativeObj);
+        // sem clear() a referência ainda seria enfileirada quando o GC coletasse o Mat
+        if (entry != null) entry.clear();
+    }
+
+    /** Bytes de dados de um Mat (0 se liberado ou vazio). */
+    static long bytes(Mat mat) {
+        return mat.total() * mat.elemSize();
+    }
+
+    /**
+     * Conta os Mats coletados sem {@link #release} e recalcula os bytes vivos.
+     *
+     * @return bytes nativos dos Mats registrados ainda vivos
+     */
+    public static long sample() {
+        Reference<? extends Mat> collected;
+        while ((collected = COLLECTED.poll()) != null) {
+            Entry entry = (Entry) collected;
+            if (LIVE.remove(entry.address, entry)) leaked(entry);
+        }
+        long total = 0;
+        for (Entry entry : LIVE.values()) {
+            Mat mat = entry.get();
+            if (mat != null) total += bytes(mat);
+        }
+        liveBytes = total;
+        peakBytes = Math.max(peakBytes, total);
+        return total;
+    }
+
+    private static void leaked(Entry entry) {
+        leaks.incrementAndGet();
+        LEAKED.computeIfAbsent(entry.site, s -> new AtomicLong()).incrementAndGet();
+    }
+
+    /** Último valor de {@link #sample()}, sem custo. */
+    public static double liveMB() {
+        return liveBytes / 1024.0 / 1024.0;
+    }
+
+    public static double peakMB() {
+        return peakBytes / 1024.0 / 1024.0;
+    }
+
+    public static int liveCount() {
+        return LIVE.size();
+    }
+
+    /** Mats coletados pelo GC sem {@link #release}. */
+    public static long leaks() {
+        return leaks.get();
+    }
+
+    /**
+     * Memória residente do processo (heap, dados dos Mats e o resto do OpenCV), de
+     * {@code /proc/self/status}; NaN fora do Linux.
+     */
+    public static double residentMB() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024.0;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // sem /proc: só os bytes dos Mats registrados
+        }
+        return Double.NaN;
+    }
+
+    /** Mats ainda vivos e vazamentos, por local de alocação. Chamar depois de liberar tudo o que é esperado. */
+    public static void printReport() {
+        sample();
+        Map<String, long[]> bySite = new TreeMap<>();
+        for (Entry entry : LIVE.values()) {
+            Mat mat = entry.get();
+            if (mat == null) continue;
+            long[] acc = bySite.computeIfAbsent(entry.site, s -> new long[2]);
+            acc[0]++;
+            acc[1] += bytes(mat);
+        }
+        System.out.printf(Locale.US, "Mats nativos: %d vivos, %.1f MB (pico %.1f MB), %d vazamentos%n",
+                liveCount(), liveMB(), peakMB(), leaks());
+        bySite.forEach((site, acc) -> System.out.printf(Locale.US, "  ⚠ sem release: %4d Mats %8.2f MB  %s%n",
+                acc[0], acc[1] / 1024.0 / 1024.0, site));
+        new TreeMap<>(LEAKED).forEach((site, count) -> System.out.printf(Locale.US,
+                "  ❌ coletado pelo GC sem release: %4d  %s%n", count.get(), site));
+    }
+}
@@ -0,0 +1,131 @@
+import org.opencv.core.*;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Teste de longa duração da memória nativa: roda o {@link FrameAnalyzer} completo (porta de
+ * movimento, ROI e suavização de gesto) por milhares de frames e confere que os bytes dos Mats
+ * registrados no {@link NativeMats} e a memória residente do processo ficam estáveis.
+ * <p>
+ * Sem fonte usa frames sintéticos (uma mão em tom de pele andando sobre fundo cinza, alternando
+ * 2 e 4 dedos); com uma fonte (vídeo ou pasta) ela é reaberta a cada vez que termina. A cada
+ * {@code --every} frames grava {@code frame,nativeMB,residentMB,heapMB,liveMats,leaks} em
+ * {@code benchmark/native_soak.csv}. Depois do aquecimento (primeiros 10% dos frames) os Mats
+ * registrados podem variar só o tamanho dos buffers de contorno ({@code NATIVE_SLACK_MB}) e a memória
+ * residente menos que {@code --tolerance} MB; senão, ou se houver Mats sem release ao final, sai com
+ * código 1.
+ *
+ * <pre>
+ * NativeMemorySoak [fonte] [--frames 5000] [--every 250] [--tolerance 16]
+ * </pre>
+ */
+public class NativeMemorySoak {
+    static {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+    }
+
+    static String PATH = "src/src/HandDetector/benchmark/";
+
+    // hull, defeitos e aproximação do contorno mudam de tamanho conforme a mão
+    static final double NATIVE_SLACK_MB = 1;
+
+    static final Scalar BACKGROUND = new Scalar(60, 60, 60);
+    static final Scalar SKIN = new Scalar(90, 130, 200);   // YCrCb ≈ (146, 166, 96), dentro dos limites de pele
+
+    public static void main(String[] args) throws IOException {
+        String sourceSpec = null;
+        int frames = 5000;
+        int every = 250;
+        double toleranceMB = 16;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--frames" -> frames = Integer.parseInt(args[++i]);
+                case "--every" -> every = Integer.parseInt(args[++i]);
+                case "--tolerance" -> toleranceMB = Double.parseDouble(args[++i]);
+                default -> sourceSpec = args[i];
+            }
+        }
+
+        int warmup = frames / 10;
+        double nativeAtWarmup = Double.NaN, residentAtWarmup = Double.NaN;
+        double nativeGrowth = 0, residentGrowth = 0;
+        Mat frame = NativeMats.track(new Mat());
+        FrameSource source = sourceSpec != null ? FrameSource.open(sourceSpec) : null;
+        FrameAnalyzer analyzer = new FrameAnalyzer(DetectionParams.DEFAULT, new RoiTracker(30, 0.5),
+                new GestureTracker(event -> { }), new MotionGate());
+
+        System.out.println("Fonte: " + (source != null ? source.name() : "frames sintéticos 640x480"));
+        try (StageMetrics stages = new StageMetrics(1000, 0);
+             PrintWriter csv = new PrintWriter(new FileWriter(PATH + "native_soak.csv"))) {
+            csv.println("frame,nativeMB,residentMB,heapMB,liveMats,leaks");
+            long start = System.nanoTime();
+            for (int n = 0; n < frames; n++) {
+                if (source == null) {
+                    drawSyntheticHand(frame, n);
+                } else if (!source.read(frame)) {
+                    source.close();
+                    source = FrameSource.open(sourceSpec);
+                    if (!source.read(frame)) {
+                        System.out.println("❌ Fonte sem frames: " + sourceSpec);
+                        return;
+                    }
+                }
+                analyzer.analyze(frame, n, System.nanoTime(), stages);
+
+                if ((n + 1) % every == 0 || n + 1 == frames) {
+                    // coleta antes de medir: Mats largados sem release aparecem como vazamento no sample
+                    System.gc();
+                    double nativeMB = NativeMats.sample() / 1024.0 / 1024.0;
+                    double residentMB = NativeMats.residentMB();
+                    Runtime runtime = Runtime.getRuntime();
+                    double heapMB = (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0;
+                    csv.printf(Locale.US, "%d,%.3f,%.1f,%.1f,%d,%d%n", n + 1, nativeMB, residentMB, heapMB,
+                            NativeMats.liveCount(), NativeMats.leaks());
+                    System.out.printf(Locale.US, "frame %6d | Mats %7.3f MB (%d) | residente %7.1f MB | heap %6.1f MB | vazamentos %d%n",
+                            n + 1, nativeMB, NativeMats.liveCount(), residentMB, heapMB, NativeMats.leaks());
+
+                    if (n + 1 >= warmup && Double.isNaN(nativeAtWarmup)) {
+                        nativeAtWarmup = nativeMB;
+                        residentAtWarmup = residentMB;
+                    } else if (!Double.isNaN(nativeAtWarmup)) {
+                        nativeGrowth = Math.max(nativeGrowth, nativeMB - nativeAtWarmup);
+                        residentGrowth = Math.max(residentGrowth, residentMB - residentAtWarmup);
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.US, "%d frames em %.1f s (%.1f FPS)%n", frames, seconds, frames / seconds);
+        } finally {
+            analyzer.release();
+            NativeMats.release(frame);
+            if (source != null) source.close();
+        }
+
+        NativeMats.printReport();
+        boolean flat = nativeGrowth <= NATIVE_SLACK_MB && !(residentGrowth > toleranceMB);
+        boolean clean = NativeMats.liveCount() == 0 && NativeMats.leaks() == 0;
+        System.out.printf(Locale.US, "%s crescimento após o aquecimento: Mats %+.3f MB, residente %+.1f MB (limite %.0f MB)%n",
+                flat ? "✅" : "❌", nativeGrowth, residentGrowth, toleranceMB);
+        if (!clean) System.out.println("❌ Mats sem release ao final (ver acima)");
+        System.out.println("Série salva em " + PATH + "native_soak.csv");
+        System.exit(flat && clean ? 0 : 1);
+    }
+
+    /** Palma com 2 ou 4 dedos (troca a cada 100 frames) andando em vai-e-vem pelo frame. */
+    static void drawSyntheticHand(Mat frame, int n) {
+        frame.create(480, 640, CvType.CV_8UC3);
+        frame.setTo(BACKGROUND);
+        int cx = 200 + (int) (120 * Math.sin(n / 40.0));
+        int cy = 300 + (int) (30 * Math.cos(n / 25.0));
+        Imgproc.ellipse(frame, new Point(cx, cy), new Size(70, 85), 0, 0, 360, SKIN, -1);
+        int fingers = (n / 100) % 2 == 0 ? 2 : 4;
+        for (int f = 0; f < fingers; f++) {
+            int x = cx - 60 + f * (120 / Math.max(1, fingers - 1));
+            Imgproc.rectangle(frame, new Point(x - 12, cy - 190), new Point(x + 12, cy - 60), SKIN, -1);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache persistente dos resultados do {@link HandBatchDetector}, indexado pelo SHA-256 do conteúdo
+ * da imagem e por uma impressão digital dos parâmetros do pipeline.
+ * <p>
+ * O arquivo é um log só de acréscimo: cada imagem analisada vira uma linha assim que termina, então
+ * um lote interrompido recomeça de onde parou (as imagens já gravadas são acertos na próxima
+ * execução). Ao final de um lote completo o log é compactado, ficando só as entradas da impressão
+ * digital atual dos arquivos vistos no lote, uma por caminho. Imagens sem mão também são guardadas,
+ * para não serem reanalisadas. Tamanho e data de modificação de cada caminho são guardados para
+ * pular a leitura e o hash dos arquivos que não mudaram.
+ * <p>
+ * Formato: {@code hash,fingerprint,size,mtime,millis,fingers,maxArea,cx,cy,defects,avgAngle,gesture,path},
+ * com {@code fingers = -1} para "nenhuma mão". Thread-safe.
+ */
+public class ResultCache implements AutoCloseable {
+    /** Incrementar quando a análise mudar de um jeito que os parâmetros abaixo não capturam. */
+    static final int PIPELINE_VERSION = 1;
+
+    /** Resultado guardado de uma imagem; {@code info == null} quando não há mão. */
+    record Entry(String hash, long size, long mtime, long millis, ContourInfo info, String path) {
+    }
+
+    private final Path file;
+    private final String fingerprint;
+    private final Map<String, Entry> byHash = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byPath = new ConcurrentHashMap<>();
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();   // caminhos desta execução
+    private final BufferedWriter log;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong savedMillis = new AtomicLong();
+
+    public ResultCache(Path file, DetectionParams params) throws IOException {
+        this.file = file;
+        this.fingerprint = fingerprint(params);
+        boolean partialLine = Files.exists(file) && load();
+        this.log = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        // termina a linha cortada para o próximo registro não ser emendado nela
+        if (partialLine) log.newLine();
+    }
+
+    /** Parâmetros que mudam o resultado da análise, resumidos em 16 hexadecimais. */
+    static String fingerprint(DetectionParams params) {
+        String description = String.format(Locale.US, "v%d|scale=%s|area=%s|eps=%s|depth=%s|peace=%s|ok=%s|skin=%s-%s|blur=%s",
+                PIPELINE_VERSION, params.scale, params.minArea, params.approxEpsilon, params.minDefectDepth,
+                params.peaceMinDx, params.okMaxDist, FrameWorkspace.SKIN_LOWER, FrameWorkspace.SKIN_UPPER,
+                FrameWorkspace.BLUR_SIZE);
+        return sha256(description.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    static String sha256(byte[] data) {
+        return sha256(ByteBuffer.wrap(data));
+    }
+
+    /** Consome os bytes restantes do buffer (pode ser direto, sem cópia para o heap). */
+    static String sha256(ByteBuffer data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 é obrigatório em toda JVM
+        }
+    }
+
+    /** @return true se o arquivo termina no meio de uma linha */
+    private boolean load() throws IOException {
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        for (String line : content.lines().toList()) {
+            String[] cols = line.split(",", 13);
+            // linha cortada por uma interrupção no meio da escrita: ignora
+            if (cols.length < 13 || !cols[1].equals(fingerprint)) continue;
+            try {
+                int fingers = Integer.parseInt(cols[5]);
+                ContourInfo info = fingers < 0 ? null : new ContourInfo(
+                        new FingerData(fingers, Double.parseDouble(cols[10])), cols[11],
+                        Double.parseDouble(cols[6]), Double.parseDouble(cols[7]), Double.parseDouble(cols[8]),
+                        Integer.parseInt(cols[9]), null);
+                put(new Entry(cols[0], Long.parseLong(cols[2]), Long.parseLong(cols[3]), Long.parseLong(cols[4]), info, cols[12]));
+            } catch (NumberFormatException e) {
+                // idem
+            }
+        }
+        return !content.isEmpty() && !content.endsWith("\n");
+    }
+
+    private void put(Entry entry) {
+        byHash.put(entry.hash(), entry);
+        byPath.put(entry.path(), entry);
+    }
+
+    /** Resultado já conhecido para o caminho, se o tamanho e a data de modificação não mudaram. */
+    Entry lookupByStat(Path path, long size, long mtime) {
+        Entry entry = byPath.get(path.toString());
+        return entry != null && entry.size() == size && entry.mtime() == mtime ? entry : null;
+    }
+
+    /** Resultado já conhecido para o conteúdo (ex.: arquivo renomeado, copiado ou só tocado). */
+    Entry lookupByHash(String hash) {
+        return byHash.get(hash);
+    }
+
+    /**
+     * Conta um acerto e o tempo que a análise original tinha levado. Se o conteúdo veio de outro
+     * caminho ou o arquivo foi tocado, grava o caminho atual para a próxima execução pular o hash.
+     */
+    void hit(Path path, long size, long mtime, Entry entry) {
+        hits.incrementAndGet();
+        savedMillis.addAndGet(entry.millis());
+        seen.add(path.toString());
+        if (entry.path().equals(path.toString()) && entry.size() == size && entry.mtime() == mtime) return;
+        append(new Entry(entry.hash(), size, mtime, entry.millis(), entry.info(), path.toString()));
+    }
+
+    /** Guarda e já grava no log o resultado de uma imagem analisada agora. */
+    void record(Path path, String hash, long size, long mtime, long millis, ContourInfo info) {
+        misses.incrementAndGet();
+        seen.add(path.toString());
+        append(new Entry(hash, size, mtime, millis, info, path.toString()));
+    }
+
+    private void append(Entry entry) {
+        put(entry);
+        synchronized (log) {
+            try {
+                log.write(format(entry));
+                log.newLine();
+                log.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private String format(Entry e) {
+        ContourInfo info = e.info();
+        if (info == null) {
+            return String.join(",", e.hash(), fingerprint, String.valueOf(e.size()), String.valueOf(e.mtime()),
+                    String.valueOf(e.millis()), "-1", "0", "0", "0", "0", "0", "-", e.path());
+        }
+        // Double.toString preserva o valor exato: o CSV do lote sai igual com ou sem cache
+        return String.join(",", e.hash(), fingerprint, String.valueOf(e.size()), String.valueOf(e.mtime()),
+                String.valueOf(e.millis()), String.valueOf(info.fingerData.count), String.valueOf(info.maxArea),
+                String.valueOf(info.cx), String.valueOf(info.cy), String.valueOf(info.convexDefects),
+                String.valueOf(info.fingerData.avgAngle), info.gesture, e.path());
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    /** Soma do tempo de análise (em uma thread) das imagens servidas pelo cache. */
+    long savedMillis() {
+        return savedMillis.get();
+    }
+
+    double hitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Fecha o log e o reescreve só com as entradas dos arquivos vistos nesta execução (uma por
+     * caminho), num arquivo temporário trocado atomicamente. Chamar só depois de um lote completo:
+     * entradas de outras impressões digitais e de arquivos que saíram do corpus são descartadas.
+     */
+    void compact() throws IOException {
+        close();
+        Path temp = Paths.get(file + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (String path : seen) {
+                writer.write(format(byPath.get(path)));
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (log) {
+            log.close();
+        }
+    }
+}
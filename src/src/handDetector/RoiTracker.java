@@ -0,0 +1,100 @@
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Restringe a segmentação à região onde a mão estava no frame anterior.
+ * <p>
+ * Depois que a mão é encontrada, o próximo frame processa só o bounding box do contorno expandido
+ * por uma margem. Volta para o frame inteiro quando a mão some, quando o contorno encosta na borda
+ * da região (a mão pode estar saindo dela) e a cada {@code refreshInterval} frames, para achar uma
+ * mão maior que tenha entrado em outra parte da imagem.
+ * Uma instância por stream, usada só pela thread de análise.
+ */
+public class RoiTracker {
+    private final int refreshInterval;
+    private final double margin;
+
+    private Rect roi;
+    private int framesSinceFull;
+
+    // Estatísticas para o relatório
+    private long frames, roiFrames, pixelsProcessed, fullFramePixels;
+
+    /**
+     * @param refreshInterval a cada quantos frames força o frame inteiro
+     * @param margin          expansão do bounding box em cada lado, em fração da largura/altura dele
+     */
+    public RoiTracker(int refreshInterval, double margin) {
+        this.refreshInterval = refreshInterval;
+        this.margin = margin;
+    }
+
+    /** Região a processar neste frame, ou {@code null} para o frame inteiro. */
+    Rect next(int cols, int rows) {
+        Rect region = roi;
+        if (region == null || ++framesSinceFull >= refreshInterval) {
+            region = null;
+            framesSinceFull = 0;
+        }
+
+        long full = (long) cols * rows;
+        frames++;
+        fullFramePixels += full;
+        if (region != null) {
+            roiFrames++;
+            pixelsProcessed += (long) region.width * region.height;
+        } else {
+            pixelsProcessed += full;
+        }
+        return region;
+    }
+
+    /** Atualiza a região a partir do resultado de {@code findLargestContourIndex}. */
+    void update(FrameWorkspace ws, int index, int cols, int rows) {
+        if (index == -1) {
+            roi = null;
+            return;
+        }
+
+        Rect box = Imgproc.boundingRect(ws.contours.get(index));
+        Rect processed = ws.roi;
+        if (processed != null && touchesBorder(box, processed, cols, rows)) {
+            roi = null;
+            return;
+        }
+
+        int padX = (int) Math.max(16, box.width * margin);
+        int padY = (int) Math.max(16, box.height * margin);
+        int x1 = Math.max(0, box.x - padX);
+        int y1 = Math.max(0, box.y - padY);
+        int x2 = Math.min(cols, box.x + box.width + padX);
+        int y2 = Math.min(rows, box.y + box.height + padY);
+        Rect expanded = new Rect(x1, y1, x2 - x1, y2 - y1);
+
+        // Região quase do tamanho do frame não compensa
+        roi = expanded.area() < 0.7 * cols * rows ? expanded : null;
+    }
+
+    // Só contam as bordas da região que não são também borda do frame
+    private static boolean touchesBorder(Rect box, Rect region, int cols, int rows) {
+        int right = region.x + region.width, bottom = region.y + region.height;
+        return (region.x > 0 && box.x <= region.x)
+                || (region.y > 0 && box.y <= region.y)
+                || (right < cols && box.x + box.width >= right)
+                || (bottom < rows && box.y + box.height >= bottom);
+    }
+
+    /** Fração dos frames processados só na região. */
+    double roiRatio() {
+        return frames == 0 ? 0 : (double) roiFrames / frames;
+    }
+
+    double avgPixelsPerFrame() {
+        return frames == 0 ? 0 : (double) pixelsProcessed / frames;
+    }
+
+    /** Pixels processados em relação a processar sempre o frame inteiro. */
+    double pixelRatio() {
+        return fullFramePixels == 0 ? 1 : (double) pixelsProcessed / fullFramePixels;
+    }
+}
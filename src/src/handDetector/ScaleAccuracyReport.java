@@ -0,0 +1,129 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Precisão x velocidade da detecção em escalas reduzidas, tomando como referência uma passada na
+ * escala 1 sobre as mesmas imagens.
+ * <p>
+ * Para cada escala mede o tempo médio de {@code analyzeFrame} por imagem e compara com a referência:
+ * concordância de detecção, de número de dedos e de gesto, erro médio do centro (px do frame
+ * original) e erro relativo médio da área. Precisa das imagens originais
+ * ({@code benchmark/images/allimgs}); as de {@code images/processed} já têm contorno e texto
+ * desenhados e não servem de entrada.
+ *
+ * <pre>
+ * ScaleAccuracyReport [--scales 1,0.5,0.25] [--limit 2000] [--out scale_report.csv]
+ * </pre>
+ */
+public class ScaleAccuracyReport {
+    static {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+    }
+
+    static String PATH = "src/src/HandDetector/benchmark/";
+
+    record Reference(int fingers, double area, double cx, double cy, String gesture) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        String[] scales = options.getOrDefault("scales", "1,0.5,0.25").split(",");
+        int limit = Integer.parseInt(options.getOrDefault("limit", "2000"));
+        String out = options.getOrDefault("out", PATH + "scale_report.csv");
+
+        if (!Files.isDirectory(HandDetectorBenchmark.RAW_IMAGES)) {
+            System.out.println("❌ " + HandDetectorBenchmark.RAW_IMAGES + " não existe: o relatório precisa das imagens"
+                    + " originais (as de " + HandDetectorBenchmark.ANNOTATED_IMAGES + " já têm contorno e texto desenhados)");
+            System.exit(1);
+        }
+        List<Path> files = HandDetectorBenchmark.listImages(HandDetectorBenchmark.RAW_IMAGES, limit);
+
+        // referência: escala 1 nas mesmas imagens (também aquece o JIT antes das escalas medidas)
+        Map<Path, Reference> reference = new HashMap<>();
+        FrameWorkspace full = new FrameWorkspace(new DetectionParams(1));
+        int referenceImages = 0;
+        long referenceNanos = 0;
+        for (Path file : files) {
+            Mat frame = Imgcodecs.imread(file.toString());
+            if (frame.empty()) continue;
+            long start = System.nanoTime();
+            ContourInfo info = HandDetector.analyzeFrame(frame, full);
+            referenceNanos += System.nanoTime() - start;
+            referenceImages++;
+            if (info != null) {
+                reference.put(file, new Reference(info.fingerData.count, info.maxArea, info.cx, info.cy, info.gesture));
+            }
+            frame.release();
+        }
+        full.release();
+        System.out.println("Corpus: " + files.size() + " imagens, mão na escala 1: " + reference.size());
+
+        List<String> rows = new ArrayList<>();
+        double baselineMs = referenceNanos / 1e6 / Math.max(1, referenceImages);
+        for (String scaleText : scales) {
+            double scale = Double.parseDouble(scaleText);
+            FrameWorkspace ws = new FrameWorkspace(new DetectionParams(scale));
+
+            int images = 0, detectionOk = 0, fingersOk = 0, gestureOk = 0, compared = 0;
+            double centerError = 0, areaError = 0;
+            long nanos = 0;
+
+            for (Path file : files) {
+                Mat frame = Imgcodecs.imread(file.toString());
+                if (frame.empty()) continue;
+
+                long start = System.nanoTime();
+                ContourInfo info = HandDetector.analyzeFrame(frame, ws);
+                nanos += System.nanoTime() - start;
+                images++;
+
+                Reference ref = reference.get(file);
+                if ((info != null) == (ref != null)) detectionOk++;
+                if (info != null && ref != null) {
+                    compared++;
+                    if (info.fingerData.count == ref.fingers()) fingersOk++;
+                    if (info.gesture.equals(ref.gesture())) gestureOk++;
+                    centerError += Math.hypot(info.cx - ref.cx(), info.cy - ref.cy());
+                    areaError += Math.abs(info.maxArea - ref.area()) / ref.area();
+                }
+                frame.release();
+            }
+            ws.release();
+
+            double avgMs = nanos / 1e6 / Math.max(1, images);
+            String row = String.format(Locale.US, "%s,%d,%.3f,%.2f,%.4f,%.4f,%.4f,%.2f,%.4f",
+                    scaleText, images, avgMs, baselineMs / avgMs,
+                    ratio(detectionOk, images), ratio(fingersOk, compared), ratio(gestureOk, compared),
+                    compared == 0 ? 0 : centerError / compared, compared == 0 ? 0 : areaError / compared);
+            rows.add(row);
+            System.out.printf(Locale.US,
+                    "%5sx  %.3f ms/img (%.2fx)  detecção %.1f%%  dedos %.1f%%  gesto %.1f%%  centro %.2f px  área %.1f%%%n",
+                    scaleText, avgMs, baselineMs / avgMs, ratio(detectionOk, images) * 100,
+                    ratio(fingersOk, compared) * 100, ratio(gestureOk, compared) * 100,
+                    compared == 0 ? 0 : centerError / compared, compared == 0 ? 0 : areaError / compared * 100);
+        }
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(out))) {
+            writer.println("scale,images,avgMs,speedup,detectionAgreement,fingersAgreement,gestureAgreement,meanCenterErrorPx,meanAreaError");
+            rows.forEach(writer::println);
+        }
+        System.out.println("Relatório salvo em " + out);
+    }
+
+    private static double ratio(int part, int total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+}
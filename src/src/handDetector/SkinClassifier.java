@@ -0,0 +1,88 @@
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Segmentação de pele por tabela: para cada uma das 2^24 cores BGR guarda um bit dizendo se
+ * {@code inRange(cvtColor(cor, BGR2YCrCb), lower, upper)} dá 255. A máscara sai numa única passada
+ * sobre os bytes do frame, sem o Mat YCrCb intermediário.
+ * <p>
+ * A tabela (2 MB) é montada uma vez por par de limites rodando o próprio {@code cvtColor} e
+ * {@code inRange} do OpenCV sobre todas as cores, 65536 de cada vez, então o arredondamento é
+ * exatamente o do caminho original e a máscara é idêntica. As tabelas são compartilhadas entre
+ * instâncias; os buffers de pixels são de cada instância (uma por workspace).
+ */
+public class SkinClassifier {
+    private static final Map<String, long[]> TABLES = new ConcurrentHashMap<>();
+
+    private final long[] table;
+    private byte[] pixels = new byte[0];
+    private byte[] maskBytes = new byte[0];
+
+    public SkinClassifier(Scalar lower, Scalar upper) {
+        this.table = TABLES.computeIfAbsent(lower + "-" + upper, key -> build(lower, upper));
+    }
+
+    private static long[] build(Scalar lower, Scalar upper) {
+        long[] bits = new long[1 << 18];
+        byte[] colors = new byte[256 * 256 * 3];
+        byte[] result = new byte[256 * 256];
+        Mat bgr = new Mat(256, 256, CvType.CV_8UC3);
+        Mat ycrcb = new Mat();
+        Mat mask = new Mat();
+
+        // um plano de B por vez: linha = G, coluna = R; índice na tabela = B << 16 | G << 8 | R
+        for (int b = 0; b < 256; b++) {
+            for (int g = 0, k = 0; g < 256; g++) {
+                for (int r = 0; r < 256; r++) {
+                    colors[k++] = (byte) b;
+                    colors[k++] = (byte) g;
+                    colors[k++] = (byte) r;
+                }
+            }
+            bgr.put(0, 0, colors);
+            Imgproc.cvtColor(bgr, ycrcb, Imgproc.COLOR_BGR2YCrCb);
+            Core.inRange(ycrcb, lower, upper, mask);
+            mask.get(0, 0, result);
+            for (int i = 0; i < result.length; i++) {
+                if (result[i] != 0) {
+                    int index = (b << 16) | i;
+                    bits[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+
+        bgr.release();
+        ycrcb.release();
+        mask.release();
+        return bits;
+    }
+
+    /**
+     * Mesmo resultado de {@code cvtColor(bgr, BGR2YCrCb)} + {@code inRange(lower, upper)}.
+     * {@code bgr} pode ser uma submat (ROI); {@code mask} deve ter o mesmo tamanho ou estar vazio.
+     */
+    public void segment(Mat bgr, Mat mask) {
+        if (bgr.type() != CvType.CV_8UC3) throw new IllegalArgumentException("Esperado BGR 8 bits: " + bgr);
+        mask.create(bgr.size(), CvType.CV_8UC1);
+
+        int n = bgr.rows() * bgr.cols();
+        if (maskBytes.length < n) {
+            pixels = new byte[n * 3];
+            maskBytes = new byte[n];
+        }
+        bgr.get(0, 0, pixels);
+
+        long[] bits = table;
+        for (int i = 0, p = 0; i < n; i++, p += 3) {
+            int index = ((pixels[p] & 0xFF) << 16) | ((pixels[p + 1] & 0xFF) << 8) | (pixels[p + 2] & 0xFF);
+            maskBytes[i] = (bits[index >>> 6] & (1L << index)) != 0 ? (byte) 255 : 0;
+        }
+        mask.put(0, 0, maskBytes);
+    }
+}
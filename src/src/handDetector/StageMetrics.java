@@ -0,0 +1,166 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instrumentação do loop: um {@link LatencyHistogram} por estágio do frame e medidores de
+ * memória/CPU amostrados num timer próprio, fora do caminho do frame.
+ * <p>
+ * Os estágios gravam durações de {@code System.nanoTime()}. A thread "metrics-sampler" lê
+ * memória e CPU a cada {@code sampleMillis} e, a cada {@code summarySeconds}, imprime
+ * p50/p95/p99/max de cada estágio no intervalo. Ao final {@link #printSummary()} e
+ * {@link #exportCsv(String)} dão o acumulado da execução.
+ */
+public class StageMetrics implements AutoCloseable {
+
+    public enum Stage {
+        CAPTURE("capture"),
+        MOTION_GATE("motionGate"),
+        PREPROCESS("preprocess"),
+        CONTOURS("contours"),
+        HULL_DEFECTS("hullDefects"),
+        CLASSIFY("classify"),
+        DRAW("drawContours"),
+        OVERLAY("overlay"),
+        DISPLAY("display"),
+        LOG("log"),
+        FRAME("frameLatency");
+
+        final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final Map<Stage, LatencyHistogram.Snapshot> lastSummary = new EnumMap<>(Stage.class);
+    private final ScheduledExecutorService sampler;
+    private final com.sun.management.OperatingSystemMXBean osBean =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    // Últimas leituras dos medidores, lidas pelo loop sem custo
+    private volatile double usedMemoryMB, cpuLoad, nativeMB;
+    private volatile double peakMemoryMB, peakCpuLoad;
+
+    // Tempo de CPU do processo desde a criação, para comparar execuções (ex.: com e sem porta de movimento)
+    private final long startCpuNanos, startWallNanos;
+
+    /**
+     * @param sampleMillis   intervalo de leitura de memória e CPU
+     * @param summarySeconds intervalo do resumo periódico no console; 0 desliga
+     */
+    public StageMetrics(long sampleMillis, long summarySeconds) {
+        startCpuNanos = osBean.getProcessCpuTime();
+        startWallNanos = System.nanoTime();
+        for (Stage stage : Stage.values()) histograms.put(stage, new LatencyHistogram());
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampleGauges();
+        sampler.scheduleAtFixedRate(this::sampleGauges, sampleMillis, sampleMillis, TimeUnit.MILLISECONDS);
+        if (summarySeconds > 0) {
+            sampler.scheduleAtFixedRate(this::printInterval, summarySeconds, summarySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    /** Grava {@code now - startNanos} e devolve {@code now}, para encadear estágios seguidos. */
+    public long lap(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        record(stage, now - startNanos);
+        return now;
+    }
+
+    double usedMemoryMB() {
+        return usedMemoryMB;
+    }
+
+    double cpuLoad() {
+        return cpuLoad;
+    }
+
+    /** Dados dos Mats registrados no {@link NativeMats}, que o {@code usedMemoryMB} (heap) não vê. */
+    double nativeMB() {
+        return nativeMB;
+    }
+
+    LatencyHistogram.Snapshot snapshot(Stage stage) {
+        return histograms.get(stage).snapshot();
+    }
+
+    private void sampleGauges() {
+        Runtime runtime = Runtime.getRuntime();
+        double memory = (runtime.totalMemory() - runtime.freeMemory()) / 1024.0 / 1024.0;
+        double cpu = osBean.getProcessCpuLoad();
+        nativeMB = NativeMats.sample() / 1024.0 / 1024.0;
+        usedMemoryMB = memory;
+        cpuLoad = cpu;
+        peakMemoryMB = Math.max(peakMemoryMB, memory);
+        peakCpuLoad = Math.max(peakCpuLoad, cpu);
+    }
+
+    // ---------------- Resumo e exportação ----------------
+
+    private void printInterval() {
+        StringBuilder line = new StringBuilder(String.format(Locale.US, "⏱ mem %.1f MB, nativo %.1f MB, CPU %.1f%% |",
+                usedMemoryMB, nativeMB, cpuLoad * 100));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot now = histograms.get(stage).snapshot();
+            LatencyHistogram.Snapshot previous = lastSummary.put(stage, now);
+            LatencyHistogram.Snapshot interval = previous == null ? now : now.minus(previous);
+            if (interval.count == 0) continue;
+            line.append(String.format(Locale.US, " %s p50=%.2f p99=%.2f", stage.label,
+                    interval.percentile(0.50) / 1e6, interval.percentile(0.99) / 1e6));
+        }
+        System.out.println(line.append(" ms"));
+    }
+
+    public void printSummary() {
+        System.out.printf("%-13s %8s %9s %9s %9s %9s %9s%n", "estágio", "n", "média", "p50", "p95", "p99", "max");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot s = histograms.get(stage).snapshot();
+            if (s.count == 0) continue;
+            System.out.printf(Locale.US, "%-13s %8d %9.3f %9.3f %9.3f %9.3f %9.3f%n", stage.label, s.count,
+                    s.mean() / 1e6, s.percentile(0.50) / 1e6, s.percentile(0.95) / 1e6,
+                    s.percentile(0.99) / 1e6, s.max / 1e6);
+        }
+        double cpuSeconds = (osBean.getProcessCpuTime() - startCpuNanos) / 1e9;
+        double wallSeconds = (System.nanoTime() - startWallNanos) / 1e9;
+        long frames = histograms.get(Stage.FRAME).snapshot().count;
+        System.out.printf(Locale.US,
+                "Memória: pico %.1f MB, Mats nativos pico %.1f MB | CPU: pico %.1f%%, %.2f s em %.2f s (%.2f núcleos), %.2f ms de CPU por frame%n",
+                peakMemoryMB, NativeMats.peakMB(), peakCpuLoad * 100, cpuSeconds, wallSeconds, cpuSeconds / wallSeconds,
+                frames == 0 ? 0 : cpuSeconds * 1000 / frames);
+    }
+
+    /** Uma linha por estágio com contagem e percentis em ms. */
+    public void exportCsv(String path) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            writer.println("stage,count,meanMs,p50Ms,p95Ms,p99Ms,maxMs");
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram.Snapshot s = histograms.get(stage).snapshot();
+                writer.printf(Locale.US, "%s,%d,%.4f,%.4f,%.4f,%.4f,%.4f%n", stage.label, s.count,
+                        s.mean() / 1e6, s.percentile(0.50) / 1e6, s.percentile(0.95) / 1e6,
+                        s.percentile(0.99) / 1e6, s.max / 1e6);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+}
@@ -0,0 +1,426 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Detecção de mão em várias câmeras/streams ao mesmo tempo, com um pool de workers compartilhado.
+ * <p>
+ * Cada stream tem a sua thread de captura (virtual: passa a maior parte do tempo bloqueada
+ * esperando o próximo frame) e o seu próprio estado — {@link FrameAnalyzer} (workspace, ROI, gestos,
+ * porta de movimento), sink e CSV. O processamento com OpenCV roda num pool fixo de threads de
+ * plataforma, limitado ao número de núcleos. Cada tarefa do pool processa um único frame de um stream e o stream volta
+ * para o fim da fila se tiver outro frame pronto, então os streams são atendidos em rodízio e um
+ * stream rápido não monopoliza os workers. No máximo um frame de cada stream está em análise por vez,
+ * o que mantém a ordem dos frames e o estado do stream sem locks.
+ * <p>
+ * Streams de câmera descartam o frame mais antigo quando o pool está atrasado; arquivos de vídeo e
+ * pastas de imagens esperam a análise e processam todos os frames (a não ser com {@code --drop}).
+ * O {@code read} das fontes é uma chamada nativa e prende a thread carregadora da virtual thread
+ * enquanto dura; com muito mais streams que núcleos aumente {@code -Djdk.virtualThreadScheduler.parallelism}.
+ */
+public class StreamEngine {
+    static {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+    }
+
+    static String PATH = "src/src/HandDetector/reports/001/";
+
+    /** Estado de um stream. Os campos de análise só são tocados pelo worker que está com o stream. */
+    static final class Stream {
+        final int id;
+        final FrameSource source;
+        final FrameSink sink;
+        final MetricsWriter metrics;
+        final FrameAnalyzer analyzer;
+        final boolean dropFrames;
+
+        // Troca de frames entre captura e análise: cada Mat pertence a um único dono por vez
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition consumed = lock.newCondition();
+        private Mat reading = NativeMats.track(new Mat()), latest = NativeMats.track(new Mat()),
+                working = NativeMats.track(new Mat());
+        private boolean hasFrame;
+        private volatile boolean ended;
+        private long latestCaptureNanos, workingCaptureNanos;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean stopped;
+        private boolean finished;
+
+        // Métricas
+        private long captured, dropped, processed, hands;
+        private long[] latencies = new long[1024];
+        private long lastShownNanos, finishNanos;
+
+        Stream(int id, FrameSource source, FrameSink sink, MetricsWriter metrics, FrameAnalyzer analyzer,
+               boolean dropFrames) {
+            this.id = id;
+            this.source = source;
+            this.sink = sink;
+            this.metrics = metrics;
+            this.analyzer = analyzer;
+            this.dropFrames = dropFrames;
+        }
+
+        /** Chamado pela captura depois de ler em {@code reading}. */
+        void publish(long captureNanos) throws InterruptedException {
+            lock.lock();
+            try {
+                if (!dropFrames) {
+                    while (hasFrame && !stopped) consumed.await();
+                }
+                if (hasFrame) dropped++;
+                Mat previous = latest;
+                latest = reading;
+                reading = previous;
+                hasFrame = true;
+                latestCaptureNanos = captureNanos;
+                captured++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Passa o frame mais recente para {@code working}; false se não há frame novo. */
+        boolean take() {
+            lock.lock();
+            try {
+                if (!hasFrame || finished) return false;
+                Mat previous = working;
+                working = latest;
+                latest = previous;
+                hasFrame = false;
+                workingCaptureNanos = latestCaptureNanos;
+                consumed.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void markEnded() {
+            lock.lock();
+            try {
+                ended = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean hasWork() {
+            lock.lock();
+            try {
+                return !finished && (hasFrame || ended);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            lock.lock();
+            try {
+                consumed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** @return latência do frame, da captura até aqui */
+        long record(ContourInfo info, String stableGesture, double processedPixels) {
+            long now = System.nanoTime();
+            long latency = now - workingCaptureNanos;
+            double fps = lastShownNanos == 0 ? 0 : 1e9 / Math.max(1, now - lastShownNanos);
+            lastShownNanos = now;
+
+            if (info != null) {
+                hands++;
+                if (metrics != null) {
+                    metrics.beginRow()
+                            .put(processed).put(info.fingerData.count).put(info.maxArea).put(info.cx).put(info.cy)
+                            .put(info.convexDefects).put(info.fingerData.avgAngle)
+                            .put(fps).put(latency / 1e6).put(info.gesture).put(processedPixels)
+                            .put(stableGesture != null ? stableGesture : "")
+                            .put(NativeMats.liveMB())   // amostrado pelo StageMetrics do motor
+                            .endRow();
+                }
+            }
+            if (processed == latencies.length) latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            latencies[(int) processed++] = latency;
+            return latency;
+        }
+
+        void release() {
+            NativeMats.release(reading);
+            NativeMats.release(latest);
+            NativeMats.release(working);
+            analyzer.release();
+        }
+    }
+
+    private final int workers;
+    private final DetectionParams params;
+    private final boolean trackRoi;
+    private final boolean motionGate;
+    private final StageMetrics stages;
+    private final List<Stream> streams = new ArrayList<>();
+
+    private ExecutorService pool;
+    private CountDownLatch done;
+    private long startNanos, endNanos;
+    // primeira exceção de um stream; run() a relança depois que todos terminam
+    private volatile Throwable failure;
+
+    /**
+     * @param workers  threads de plataforma para o processamento com OpenCV
+     * @param params   escala de processamento e limiares, iguais para todos os streams
+     * @param trackRoi   usa um {@link RoiTracker} por stream
+     * @param motionGate usa um {@link MotionGate} por stream
+     * @param stages     tempos por estágio, somados de todos os streams
+     */
+    public StreamEngine(int workers, DetectionParams params, boolean trackRoi, boolean motionGate, StageMetrics stages) {
+        this.workers = workers;
+        this.params = params;
+        this.trackRoi = trackRoi;
+        this.motionGate = motionGate;
+        this.stages = stages;
+    }
+
+    /**
+     * Registra um stream antes do {@link #run()}. A fonte, o sink e o CSV continuam sendo do chamador,
+     * que os fecha depois do {@code run}. O sink é chamado pelos workers; um sink com janela precisa
+     * aguentar chamadas de threads diferentes.
+     *
+     * @param metrics    CSV por frame com mão detectada, ou {@code null}
+     * @param dropFrames descarta o frame mais antigo em vez de esperar a análise
+     */
+    public int addStream(FrameSource source, FrameSink sink, MetricsWriter metrics, boolean dropFrames) {
+        int id = streams.size();
+        GestureTracker gestures = new GestureTracker(event -> {
+            System.out.print("[" + id + "] ");
+            HandDetector.printGestureEvent(event);
+        });
+        FrameAnalyzer analyzer = new FrameAnalyzer(params, trackRoi ? new RoiTracker(30, 0.5) : null, gestures,
+                motionGate ? new MotionGate() : null);
+        streams.add(new Stream(id, source, sink, metrics, analyzer, dropFrames));
+        return id;
+    }
+
+    public void run() throws InterruptedException {
+        AtomicInteger workerIds = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers,
+                r -> new Thread(r, "stream-worker-" + workerIds.getAndIncrement()));
+        done = new CountDownLatch(streams.size());
+
+        startNanos = System.nanoTime();
+        List<Thread> captures = new ArrayList<>();
+        for (Stream stream : streams) {
+            captures.add(Thread.ofVirtual().name("capture-" + stream.id).start(() -> captureLoop(stream)));
+        }
+
+        done.await();
+        endNanos = System.nanoTime();
+        for (Thread capture : captures) capture.join();
+
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        for (Stream stream : streams) stream.release();
+
+        Throwable e = failure;
+        if (e instanceof RuntimeException r) throw r;
+        if (e instanceof Error error) throw error;
+    }
+
+    public void stop() {
+        for (Stream stream : streams) stream.stop();
+    }
+
+    // ---------------- Captura e agendamento ----------------
+
+    private void captureLoop(Stream stream) {
+        try {
+            while (!stream.stopped) {
+                long start = System.nanoTime();
+                if (!stream.source.read(stream.reading)) break;
+                stream.publish(stages.lap(StageMetrics.Stage.CAPTURE, start));
+                schedule(stream);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            fail(stream, e);
+        } finally {
+            stream.markEnded();
+            schedule(stream);
+        }
+    }
+
+    // Um stream fica no máximo uma vez na fila do pool
+    private void schedule(Stream stream) {
+        if (stream.scheduled.compareAndSet(false, true)) pool.execute(() -> step(stream));
+    }
+
+    /** Processa um frame do stream (ou encerra o stream) e o devolve para o fim da fila se houver mais. */
+    private void step(Stream stream) {
+        try {
+            if (stream.take()) {
+                analyze(stream);
+            } else if (stream.ended) {
+                finish(stream);
+            }
+        } catch (Throwable e) {
+            // inclui Errors (OOM, erro nativo): sem o finish o stream nunca seria contado e o run() não voltaria
+            fail(stream, e);
+        }
+
+        // Libera antes de conferir: um frame publicado entre as duas coisas não fica esquecido
+        stream.scheduled.set(false);
+        if (stream.hasWork()) schedule(stream);
+    }
+
+    private void analyze(Stream stream) {
+        Mat frame = stream.working;
+        FrameAnalyzer analyzer = stream.analyzer;
+        analyzer.analyze(frame, stream.processed, stream.workingCaptureNanos, stages);
+
+        long start = System.nanoTime();
+        ContourInfo info = analyzer.info;
+        if (info != null) HandDetector.showTextOnScreen(frame, info.fingerData.count, analyzer.displayGesture());
+        start = stages.lap(StageMetrics.Stage.OVERLAY, start);
+        if (!stream.sink.show(frame)) stream.stop();
+        start = stages.lap(StageMetrics.Stage.DISPLAY, start);
+
+        long latency = stream.record(info, analyzer.stableGesture, analyzer.processedPixels);
+        stages.record(StageMetrics.Stage.FRAME, latency);
+        stages.lap(StageMetrics.Stage.LOG, start);
+    }
+
+    /** Encerra o stream que falhou; os outros seguem até o fim e o {@link #run()} relança a exceção. */
+    private void fail(Stream stream, Throwable e) {
+        System.out.println("❌ Erro no stream " + stream.id + " (" + stream.source.name() + "): " + e);
+        e.printStackTrace();
+        synchronized (this) {
+            if (failure == null) failure = e;
+            else if (failure != e) failure.addSuppressed(e);
+        }
+        stream.stop();
+        finish(stream);
+    }
+
+    private void finish(Stream stream) {
+        stream.lock.lock();
+        try {
+            if (stream.finished) return;
+            stream.finished = true;
+        } finally {
+            stream.lock.unlock();
+        }
+        stream.finishNanos = System.nanoTime();
+        done.countDown();
+    }
+
+    // ---------------- Resultado ----------------
+
+    public void printReport() {
+        long totalFrames = 0;
+        for (Stream stream : streams) {
+            double seconds = (stream.finishNanos - startNanos) / 1e9;
+            long[] sorted = Arrays.copyOf(stream.latencies, (int) stream.processed);
+            Arrays.sort(sorted);
+            System.out.printf(Locale.US,
+                    "[%d] %s: %d capturados, %d processados, %d descartados, mão em %.1f%% | %.2f FPS | latência ms p50=%.2f p95=%.2f max=%.2f%n",
+                    stream.id, stream.source.name(), stream.captured, stream.processed, stream.dropped,
+                    stream.processed == 0 ? 0 : 100.0 * stream.hands / stream.processed, stream.processed / seconds,
+                    HandPipeline.percentileMs(sorted, 0.50), HandPipeline.percentileMs(sorted, 0.95),
+                    HandPipeline.percentileMs(sorted, 1.0));
+            System.out.printf(Locale.US, "    gestos: %d eventos, classificação reaproveitada em %.1f%% dos frames com mão%n",
+                    stream.analyzer.gestures.events(), stream.analyzer.gestures.reuseRatio() * 100);
+            if (stream.analyzer.motionGate != null) {
+                System.out.printf(Locale.US, "    porta de movimento: %.1f%% dos frames sem detecção%n",
+                        stream.analyzer.motionGate.skipRatio() * 100);
+            }
+            totalFrames += stream.processed;
+        }
+        double seconds = (endNanos - startNanos) / 1e9;
+        System.out.printf(Locale.US, "Total: %d streams, %d workers, %d frames em %.2f s (%.2f FPS agregados)%n",
+                streams.size(), workers, totalFrames, seconds, totalFrames / seconds);
+    }
+
+    /**
+     * Uso: StreamEngine [--threads N] [--drop] [--csv] [--no-roi] [--no-gate] [--scale 0.5] [--skin-lut] fonte1 fonte2 ...
+     * Cada fonte é um índice de câmera, um vídeo ou uma pasta de imagens, como no {@link HandDetector}.
+     * Ex.: {@code StreamEngine cam1.mp4 cam2.mp4 cam3.mp4 --drop} simula três câmeras com arquivos.
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean dropAll = false, csv = false, trackRoi = true, motionGate = true;
+        double scale = 1.0;
+        boolean skinLut = false;
+        List<String> specs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--drop" -> dropAll = true;
+                case "--csv" -> csv = true;
+                case "--no-roi" -> trackRoi = false;
+                case "--no-gate" -> motionGate = false;
+                case "--scale" -> scale = Double.parseDouble(args[++i]);
+                case "--skin-lut" -> skinLut = true;
+                default -> specs.add(args[i]);
+            }
+        }
+        if (specs.isEmpty()) specs.add("0");
+
+        StageMetrics stages = new StageMetrics(1000, 10);
+        StreamEngine engine = new StreamEngine(threads, new DetectionParams(scale, skinLut), trackRoi, motionGate, stages);
+        List<AutoCloseable> resources = new ArrayList<>();
+        resources.add(stages);
+        try {
+            for (int i = 0; i < specs.size(); i++) {
+                FrameSource source = FrameSource.open(specs.get(i));
+                FrameSink sink = new HeadlessSink();
+                resources.add(source);
+                resources.add(sink);
+                MetricsWriter metrics = null;
+                if (csv) {
+                    metrics = new MetricsWriter(new FileWriter(PATH + "csvs/stream" + i + ".csv"),
+                            CsvSchemas.STREAM_HEADER, CsvSchemas.STREAM_DECIMALS, 8192, 1000);
+                    resources.add(metrics);
+                }
+                int id = engine.addStream(source, sink, metrics, dropAll || source instanceof CameraSource);
+                System.out.println("Stream " + id + ": " + source.name());
+            }
+
+            engine.run();
+            engine.printReport();
+            stages.printSummary();
+            NativeMats.printReport();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (AutoCloseable resource : resources) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    System.out.println("Erro ao fechar " + resource + ": " + e.getMessage());
+                }
+            }
+        }
+
+        System.exit(0);
+    }
+}
@@ -0,0 +1,34 @@
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+
+/**
+ * Vídeo gravado (ou sequência de imagens no formato do {@code VideoCapture}, ex. {@code img_%04d.jpg}).
+ * Os frames são entregues tão rápido quanto o decoder consegue, sem respeitar o FPS original.
+ */
+public class VideoFileSource implements FrameSource {
+    private final String path;
+    private final VideoCapture capture;
+
+    public VideoFileSource(String path) {
+        this.path = path;
+        this.capture = new VideoCapture(path);
+        if (!capture.isOpened()) {
+            System.out.println("❌ Erro ao abrir o vídeo: " + path);
+        }
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        return capture.read(frame) && !frame.empty();
+    }
+
+    @Override
+    public String name() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        capture.release();
+    }
+}
@@ -0,0 +1,25 @@
+import org.opencv.core.Mat;
+import org.opencv.highgui.HighGui;
+
+/** Mostra os frames numa janela. ESC encerra e a tecla 2 salva um snapshot. */
+public class WindowSink implements FrameSink {
+    private final String title;
+
+    public WindowSink(String title) {
+        this.title = title;
+    }
+
+    @Override
+    public boolean show(Mat frame) {
+        HighGui.imshow(title, frame);
+        int key = HighGui.waitKey(1) & 0xFF;
+        if (key == 27) return false;
+        if (key == 50) HandDetector.saveSnapshot(frame);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        HighGui.destroyAllWindows();
+    }
+}
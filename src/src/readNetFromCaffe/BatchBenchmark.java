@@ -0,0 +1,116 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Vazão e latência de cauda do {@link BatchingDetector} para vários tamanhos de lote, com o
+ * detector de faces res10 e o MobileNet-SSD de {@code resources}.
+ * <p>
+ * Todos os pedidos são enviados de uma vez (carga máxima) e a latência de cada um vai do
+ * {@code submit} até o future completar. Modelos sem o {@code .caffemodel} na pasta são pulados.
+ *
+ * <pre>
+ * BatchBenchmark [pedidos] [workers] [espera ms]
+ * </pre>
+ */
+public class BatchBenchmark {
+    static {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+    }
+
+    static final int[] BATCH_SIZES = {1, 2, 4, 8, 16};
+    static final String OUTPUT = "src/src/readNetFromCaffe/images/output/batch_benchmark.csv";
+
+    public static void main(String[] args) throws IOException {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long waitMillis = args.length > 2 ? Long.parseLong(args[2]) : 10;
+
+        List<Mat> images = loadImages();
+        if (images.isEmpty()) {
+            System.out.println("❌ Nenhuma imagem em src/src/readNetFromCaffe/images");
+            return;
+        }
+
+        List<String> rows = new ArrayList<>();
+        String[] names = {"res10-face", "mobilenet-ssd"};
+        ModelConfig[] configs = {ModelConfig.faceDetector(ModelConfig.RESOURCES), ModelConfig.mobileNetSsd(ModelConfig.RESOURCES)};
+        for (int m = 0; m < configs.length; m++) {
+            if (!new File(configs[m].modelPath).exists()) {
+                System.out.println("Pulando " + names[m] + ": " + configs[m].modelPath + " não encontrado");
+                continue;
+            }
+            try (DnnDetectorService service = new DnnDetectorService(configs[m], workers)) {
+                // aquecimento: primeira inferência aloca as camadas
+                service.detect(images.get(0));
+                for (int batch : BATCH_SIZES) {
+                    rows.add(run(names[m], service, batch, waitMillis, images, requests));
+                }
+            }
+        }
+
+        if (rows.isEmpty()) return;
+        try (PrintWriter writer = new PrintWriter(new FileWriter(OUTPUT))) {
+            writer.println("model,maxBatch,avgBatch,requests,imagesPerSec,p50Ms,p95Ms,p99Ms,maxMs");
+            rows.forEach(writer::println);
+        }
+        System.out.println("Resultados salvos em " + OUTPUT);
+        for (Mat image : images) image.release();
+    }
+
+    private static String run(String model, DnnDetectorService service, int maxBatch, long waitMillis,
+                              List<Mat> images, int requests) {
+        long[] latencies = new long[requests];
+        List<CompletableFuture<List<Detection>>> futures = new ArrayList<>(requests);
+        double avgBatch;
+        long start = System.nanoTime();
+        try (BatchingDetector batcher = new BatchingDetector(service, maxBatch, waitMillis)) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                futures.add(batcher.submit(images.get(i % images.size()))
+                        .whenComplete((result, error) -> latencies[index] = System.nanoTime() - submitted));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            avgBatch = batcher.averageBatchSize();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        double p50 = percentileMs(latencies, 0.50), p95 = percentileMs(latencies, 0.95),
+                p99 = percentileMs(latencies, 0.99), max = percentileMs(latencies, 1.0);
+        System.out.printf(Locale.US, "%-14s lote<=%-2d (média %.1f): %7.1f img/s | latência ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                model, maxBatch, avgBatch, requests / seconds, p50, p95, p99, max);
+        return String.format(Locale.US, "%s,%d,%.2f,%d,%.2f,%.2f,%.2f,%.2f,%.2f",
+                model, maxBatch, avgBatch, requests, requests / seconds, p50, p95, p99, max);
+    }
+
+    private static double percentileMs(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+
+    private static List<Mat> loadImages() {
+        List<Mat> images = new ArrayList<>();
+        File[] files = new File("src/src/readNetFromCaffe/images").listFiles(File::isFile);
+        if (files == null) return images;
+        Arrays.sort(files);
+        for (File file : files) {
+            Mat image = Imgcodecs.imread(file.getPath());
+            if (!image.empty()) images.add(image);
+        }
+        return images;
+    }
+}
@@ -0,0 +1,144 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Junta pedidos de detecção de várias threads em lotes para o {@link DnnDetectorService}.
+ * <p>
+ * Uma thread coletora espera um worker livre, pega o primeiro pedido da fila e junta mais até ter
+ * {@code maxBatch} imagens ou até {@code maxWaitMillis} desde a chegada do primeiro. O lote vira um
+ * único {@code blobFromImages}/{@code forward} e o resultado é separado por imagem para o
+ * {@link CompletableFuture} de cada pedido. Enquanto todos os workers estão ocupados os pedidos se
+ * acumulam, então o lote cresce sozinho quando a carga aumenta e fica pequeno (latência baixa)
+ * quando ela cai.
+ */
+public class BatchingDetector implements AutoCloseable {
+
+    private record Request(Mat image, long submitNanos, CompletableFuture<List<Detection>> future) {
+    }
+
+    private final DnnDetectorService service;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Semaphore freeWorkers;
+    private final Thread collector;
+    // submit e close sob o mesmo lock: nenhum pedido entra na fila depois que o close começou
+    private final Object lock = new Object();
+    private volatile boolean running = true;
+
+    // batchSizes[n] = quantos lotes tiveram n imagens
+    private final AtomicLongArray batchSizes;
+
+    /**
+     * @param service       serviço (e redes) que executa os lotes; continua sendo do chamador
+     * @param maxBatch      máximo de imagens por forward
+     * @param maxWaitMillis espera máxima do primeiro pedido do lote por companhia
+     */
+    public BatchingDetector(DnnDetectorService service, int maxBatch, long maxWaitMillis) {
+        this.service = service;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.freeWorkers = new Semaphore(service.workers());
+        this.batchSizes = new AtomicLongArray(maxBatch + 1);
+        this.collector = new Thread(this::collectLoop, "dnn-batcher");
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    /** A imagem é copiada; o chamador pode reaproveitar o buffer logo em seguida. */
+    public CompletableFuture<List<Detection>> submit(Mat image) {
+        Request request = new Request(image.clone(), System.nanoTime(), new CompletableFuture<>());
+        synchronized (lock) {
+            if (running) {
+                queue.add(request);
+                return request.future();
+            }
+        }
+        fail(request, new IllegalStateException("BatchingDetector encerrado"));
+        return request.future();
+    }
+
+    private void collectLoop() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running || !queue.isEmpty()) {
+                freeWorkers.acquire();
+                Request first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    freeWorkers.release();
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = first.submitNanos() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                dispatch(new ArrayList<>(batch));
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Request request : batch) fail(request, e);
+        }
+    }
+
+    private void dispatch(List<Request> batch) {
+        batchSizes.incrementAndGet(batch.size());
+        List<Mat> images = new ArrayList<>(batch.size());
+        for (Request request : batch) images.add(request.image());
+
+        service.submitBatch(images).whenComplete((results, error) -> {
+            freeWorkers.release();
+            for (int i = 0; i < batch.size(); i++) {
+                Request request = batch.get(i);
+                if (error != null) request.future().completeExceptionally(error);
+                else request.future().complete(results.get(i));
+                request.image().release();
+            }
+        });
+    }
+
+    private static void fail(Request request, Throwable error) {
+        request.future().completeExceptionally(error);
+        request.image().release();
+    }
+
+    /** Tamanho médio dos lotes executados até agora. */
+    double averageBatchSize() {
+        long batches = 0, images = 0;
+        for (int n = 1; n < batchSizes.length(); n++) {
+            batches += batchSizes.get(n);
+            images += n * batchSizes.get(n);
+        }
+        return batches == 0 ? 0 : (double) images / batches;
+    }
+
+    /** Para de aceitar pedidos e espera a coleta dos que já estavam na fila. */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            running = false;
+        }
+        try {
+            collector.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Request left;
+        while ((left = queue.poll()) != null) fail(left, new IllegalStateException("BatchingDetector encerrado"));
+    }
+}
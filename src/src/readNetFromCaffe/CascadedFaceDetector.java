@@ -0,0 +1,219 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfRect;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.objdetect.CascadeClassifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detecção de faces em cascata: o Haar (barato) roda em todo frame numa versão reduzida em cinza e
+ * só acompanha as faces que o SSD res10 (caro) encontrou; o {@code forward} da DNN roda apenas quando
+ * é preciso.
+ * <p>
+ * O SSD é chamado quando:
+ * <ul>
+ *     <li>passaram {@code dnnInterval} frames desde a última inferência (pega faces que o Haar perde);</li>
+ *     <li>o Haar acha uma face que não cobre nenhuma das acompanhadas (face nova); se o SSD não a
+ *     confirmar, essa caixa é ignorada até a próxima inferência periódica, para um falso positivo do
+ *     Haar não manter a DNN rodando em todo frame;</li>
+ *     <li>a confiança de alguma face acompanhada cai abaixo de {@code minConfidence}: cada frame em que o
+ *     Haar não a encontra multiplica a confiança por {@link #MISS_DECAY}.</li>
+ * </ul>
+ * Nos outros frames as caixas vêm do Haar, suavizadas com a posição anterior. Com
+ * {@code dnnInterval = 1} o comportamento é o do SSD puro, útil como referência.
+ * Não é thread-safe: uma instância por stream.
+ */
+public class CascadedFaceDetector {
+    static final double MISS_DECAY = 0.7;
+    static final double MIN_IOU = 0.3;
+    static final double SMOOTHING = 0.5;     // peso da caixa nova do Haar
+    static final int HAAR_WIDTH = 320;       // largura do frame reduzido para o Haar
+
+    /** De onde veio o resultado do último frame. */
+    public enum Source { DNN, HAAR }
+
+    private static final class Track {
+        final int classId;
+        final String label;
+        double confidence;
+        Rect box;
+
+        Track(int classId, String label, double confidence, Rect box) {
+            this.classId = classId;
+            this.label = label;
+            this.confidence = confidence;
+            this.box = box;
+        }
+    }
+
+    private final DnnDetectorService service;
+    private final CascadeClassifier haar;
+    private final int dnnInterval;
+    private final double minConfidence;
+
+    private final DetectionBuffer buffer = new DetectionBuffer();
+    private final Mat gray = new Mat();
+    private final Mat small = new Mat();
+    private final MatOfRect haarFaces = new MatOfRect();
+    private final List<Track> tracks = new ArrayList<>();
+    // caixas do Haar que o SSD já recusou; não forçam outra inferência até a próxima periódica
+    private final List<Rect> rejected = new ArrayList<>();
+    private final List<Rect> unmatched = new ArrayList<>();
+
+    private int sinceDnn = Integer.MAX_VALUE;
+    private long frames, dnnRuns;
+    private Source lastSource;
+
+    /**
+     * @param service       SSD de faces; continua sendo do chamador
+     * @param haar          classificador Haar já carregado
+     * @param dnnInterval   máximo de frames entre duas inferências do SSD
+     * @param minConfidence confiança abaixo da qual uma face acompanhada força o SSD
+     */
+    public CascadedFaceDetector(DnnDetectorService service, CascadeClassifier haar, int dnnInterval, double minConfidence) {
+        this.service = service;
+        this.haar = haar;
+        this.dnnInterval = Math.max(1, dnnInterval);
+        this.minConfidence = minConfidence;
+    }
+
+    /** Faces do frame, vindas do SSD ou do acompanhamento pelo Haar. */
+    public List<Detection> detect(Mat frame) {
+        frames++;
+        if (sinceDnn < Integer.MAX_VALUE) sinceDnn++;
+
+        unmatched.clear();
+        boolean periodic = sinceDnn >= dnnInterval;
+        if (periodic) rejected.clear();
+        if (periodic || !trackWithHaar(frame)) runDnn(frame);
+
+        List<Detection> result = new ArrayList<>(tracks.size());
+        for (Track track : tracks) result.add(new Detection(track.classId, track.label, track.confidence, track.box));
+        return result;
+    }
+
+    private void runDnn(Mat frame) {
+        service.detect(frame, buffer);
+        tracks.clear();
+        for (int i = 0; i < buffer.count(); i++) {
+            tracks.add(new Track(buffer.classId(i), service.config().label(buffer.classId(i)), buffer.confidence(i), buffer.box(i)));
+        }
+        for (Rect box : unmatched) {
+            if (!overlapsAny(box, tracks)) rejected.add(box);
+        }
+        dnnRuns++;
+        sinceDnn = 0;
+        lastSource = Source.DNN;
+    }
+
+    /**
+     * Atualiza as faces acompanhadas com o Haar.
+     *
+     * @return false se o frame precisa do SSD (face nova ou confiança baixa)
+     */
+    private boolean trackWithHaar(Mat frame) {
+        double scale = Math.min(1.0, (double) HAAR_WIDTH / frame.cols());
+        Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
+        Imgproc.resize(gray, small, new Size(), scale, scale, Imgproc.INTER_AREA);
+        Imgproc.equalizeHist(small, small);
+
+        // mesmos parâmetros do testeWebcam, com o tamanho mínimo na escala reduzida
+        double minFace = Math.max(12, 50 * scale);
+        haar.detectMultiScale(small, haarFaces, 1.1, 5, 0, new Size(minFace, minFace), new Size());
+
+        Rect[] found = haarFaces.toArray();
+        boolean[] used = new boolean[found.length];
+        for (int i = 0; i < found.length; i++) found[i] = unscale(found[i], scale);
+
+        boolean healthy = true;
+        for (Track track : tracks) {
+            int best = -1;
+            double bestIou = MIN_IOU;
+            for (int i = 0; i < found.length; i++) {
+                double iou = iou(track.box, found[i]);
+                if (!used[i] && iou >= bestIou) {
+                    best = i;
+                    bestIou = iou;
+                }
+            }
+            if (best >= 0) {
+                used[best] = true;
+                track.box = blend(track.box, found[best]);
+            } else {
+                track.confidence *= MISS_DECAY;
+            }
+            if (track.confidence < minConfidence) healthy = false;
+        }
+        for (int i = 0; i < found.length; i++) {
+            if (used[i] || overlapsRejected(found[i])) continue;
+            unmatched.add(found[i]);
+            healthy = false;
+        }
+
+        lastSource = Source.HAAR;
+        return healthy;
+    }
+
+    private boolean overlapsRejected(Rect box) {
+        for (Rect r : rejected) {
+            if (iou(r, box) >= MIN_IOU) return true;
+        }
+        return false;
+    }
+
+    private static boolean overlapsAny(Rect box, List<Track> tracks) {
+        for (Track track : tracks) {
+            if (iou(track.box, box) >= MIN_IOU) return true;
+        }
+        return false;
+    }
+
+    private static Rect unscale(Rect r, double scale) {
+        return new Rect((int) Math.round(r.x / scale), (int) Math.round(r.y / scale),
+                (int) Math.round(r.width / scale), (int) Math.round(r.height / scale));
+    }
+
+    private static Rect blend(Rect previous, Rect current) {
+        return new Rect(
+                (int) Math.round(previous.x + SMOOTHING * (current.x - previous.x)),
+                (int) Math.round(previous.y + SMOOTHING * (current.y - previous.y)),
+                (int) Math.round(previous.width + SMOOTHING * (current.width - previous.width)),
+                (int) Math.round(previous.height + SMOOTHING * (current.height - previous.height)));
+    }
+
+    static double iou(Rect a, Rect b) {
+        int x1 = Math.max(a.x, b.x), y1 = Math.max(a.y, b.y);
+        int x2 = Math.min(a.x + a.width, b.x + b.width), y2 = Math.min(a.y + a.height, b.y + b.height);
+        double inter = (double) Math.max(0, x2 - x1) * Math.max(0, y2 - y1);
+        double union = a.area() + b.area() - inter;
+        return union <= 0 ? 0 : inter / union;
+    }
+
+    public long frames() {
+        return frames;
+    }
+
+    public long dnnRuns() {
+        return dnnRuns;
+    }
+
+    /** Fração dos frames que rodaram o SSD (1.0 = SSD em todo frame). */
+    public double dnnRatio() {
+        return frames == 0 ? 0 : (double) dnnRuns / frames;
+    }
+
+    public Source lastSource() {
+        return lastSource;
+    }
+
+    public void release() {
+        gray.release();
+        small.release();
+        haarFaces.release();
+    }
+}
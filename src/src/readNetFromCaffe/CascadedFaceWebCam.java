@@ -0,0 +1,91 @@
+package readNetFromCaffe;
+
+import org.opencv.core.*;
+import org.opencv.highgui.HighGui;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.objdetect.CascadeClassifier;
+import org.opencv.videoio.VideoCapture;
+
+import java.io.IOException;
+
+/**
+ * Webcam (ou vídeo) com o {@link CascadedFaceDetector}: Haar em todo frame e o SSD res10 a cada
+ * {@code intervalo} frames ou quando o acompanhamento perde confiança. Mostra na tela e no final a
+ * fração de frames que rodaram a DNN e o FPS resultante; {@code intervalo = 1} é o SSD puro do
+ * {@code ReadNetFromCaffeDNN_WebCam}, para comparar.
+ *
+ * <pre>
+ * CascadedFaceWebCam [intervalo] [vídeo|índice da câmera]
+ * </pre>
+ */
+public class CascadedFaceWebCam {
+    static final String CASCADE_PATH = "resources/haarcascade_frontalface_default.xml";
+
+    public static void main(String[] args) {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+        int interval = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String input = args.length > 1 ? args[1] : "0";
+
+        CascadeClassifier haar = new CascadeClassifier(CASCADE_PATH);
+        if (haar.empty()) {
+            System.out.println("❌ Erro ao carregar o classificador: " + CASCADE_PATH);
+            return;
+        }
+
+        DnnDetectorService service;
+        try {
+            service = new DnnDetectorService(ModelConfig.faceDetector(ModelConfig.RESOURCES), 1);
+        } catch (IOException e) {
+            System.out.println("❌ Erro ao carregar a rede: " + e.getMessage());
+            return;
+        }
+
+        VideoCapture capture = input.matches("\\d+") ? new VideoCapture(Integer.parseInt(input)) : new VideoCapture(input);
+        if (!capture.isOpened()) {
+            System.out.println("❌ Não foi possível abrir: " + input);
+            service.close();
+            return;
+        }
+
+        CascadedFaceDetector detector = new CascadedFaceDetector(service, haar, interval, 0.3);
+        Mat frame = new Mat();
+        long start = System.nanoTime();
+        long lastTime = start;
+        double fps = 0.0;
+
+        while (capture.read(frame) && !frame.empty()) {
+            int faceCount = 0;
+            for (Detection detection : detector.detect(frame)) {
+                faceCount++;
+                Rect box = detection.box();
+                Imgproc.rectangle(frame, box, new Scalar(0, 255, 0), 2);
+                Imgproc.putText(frame, String.format("Face: %.2f", detection.confidence()), new Point(box.x, box.y - 10),
+                        Imgproc.FONT_HERSHEY_SIMPLEX, 0.5, new Scalar(0, 255, 0), 2);
+            }
+
+            long currentTime = System.nanoTime();
+            fps = 0.9 * fps + 0.1 * (1e9 / (currentTime - lastTime));
+            lastTime = currentTime;
+
+            Imgproc.putText(frame, "Faces: " + faceCount + " (" + detector.lastSource() + ")", new Point(10, 30),
+                    Imgproc.FONT_HERSHEY_SIMPLEX, 0.8, new Scalar(0, 0, 255), 2);
+            Imgproc.putText(frame, String.format("FPS: %.1f | DNN: %.0f%% dos frames", fps, detector.dnnRatio() * 100),
+                    new Point(10, 60), Imgproc.FONT_HERSHEY_SIMPLEX, 0.7, new Scalar(255, 0, 0), 2);
+
+            HighGui.imshow("Faces Haar + DNN - Pressione ESC ou Q", frame);
+            int key = HighGui.waitKey(1);
+            if (key == 27 || key == 'q') break;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Frames: %d | SSD: %d (%.1f%%) | FPS médio: %.1f%n",
+                detector.frames(), detector.dnnRuns(), detector.dnnRatio() * 100, detector.frames() / seconds);
+
+        detector.release();
+        frame.release();
+        capture.release();
+        service.close();
+        HighGui.destroyAllWindows();
+    }
+}
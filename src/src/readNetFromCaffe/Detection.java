@@ -0,0 +1,12 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Rect;
+
+/** Uma detecção já convertida para pixels da imagem de entrada. */
+public record Detection(int classId, String label, double confidence, Rect box) {
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.2f) [%d, %d, %dx%d]", label, confidence, box.x, box.y, box.width, box.height);
+    }
+}
@@ -0,0 +1,73 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Rect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Detecções de um forward em arrays primitivos paralelos, reaproveitados entre frames.
+ * Os arrays crescem quando necessário e nunca diminuem; só as {@link #count} primeiras posições valem.
+ */
+public class DetectionBuffer {
+    int count;
+    int[] imageIds = new int[64];
+    int[] classIds = new int[64];
+    float[] confidences = new float[64];
+    int[] x1 = new int[64], y1 = new int[64], x2 = new int[64], y2 = new int[64];
+
+    void clear() {
+        count = 0;
+    }
+
+    void add(int imageId, int classId, float confidence, int left, int top, int right, int bottom) {
+        if (count == classIds.length) grow();
+        imageIds[count] = imageId;
+        classIds[count] = classId;
+        confidences[count] = confidence;
+        x1[count] = left;
+        y1[count] = top;
+        x2[count] = right;
+        y2[count] = bottom;
+        count++;
+    }
+
+    private void grow() {
+        int size = classIds.length * 2;
+        imageIds = Arrays.copyOf(imageIds, size);
+        classIds = Arrays.copyOf(classIds, size);
+        confidences = Arrays.copyOf(confidences, size);
+        x1 = Arrays.copyOf(x1, size);
+        y1 = Arrays.copyOf(y1, size);
+        x2 = Arrays.copyOf(x2, size);
+        y2 = Arrays.copyOf(y2, size);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int classId(int i) {
+        return classIds[i];
+    }
+
+    public float confidence(int i) {
+        return confidences[i];
+    }
+
+    /** Caixa em pixels; aloca um {@link Rect}, use os arrays direto no caminho quente. */
+    public Rect box(int i) {
+        return new Rect(x1[i], y1[i], Math.max(0, x2[i] - x1[i]), Math.max(0, y2[i] - y1[i]));
+    }
+
+    /** Detecções da imagem {@code imageId} como objetos, para a API de alto nível. */
+    List<Detection> toList(int imageId, ModelConfig config) {
+        List<Detection> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (imageIds[i] != imageId) continue;
+            result.add(new Detection(classIds[i], config.label(classIds[i]), confidences[i], box(i)));
+        }
+        return result;
+    }
+}
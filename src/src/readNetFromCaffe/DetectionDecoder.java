@@ -0,0 +1,66 @@
+package readNetFromCaffe;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * Decodifica a saída {@code [1, 1, N, 7]} do SSD copiando o Mat inteiro de uma vez para um
+ * {@code float[]} reaproveitado e fazendo limiar e escala das caixas em Java, sem o
+ * {@code get(i, k)[0]} por elemento (uma chamada JNI e um {@code double[]} cada).
+ * O resultado vai para um {@link DetectionBuffer}. Uma instância por thread.
+ */
+public class DetectionDecoder {
+    // índice inicial para get(int[], float[]) por número de dimensões do Mat
+    private static final int[][] ORIGINS = {new int[0], new int[1], new int[2], new int[3], new int[4]};
+
+    private float[] values = new float[7 * 200];
+
+    /** Todas as linhas são da mesma imagem ({@code cols} x {@code rows}). */
+    public void decode(Mat detections, int cols, int rows, double threshold, DetectionBuffer out) {
+        int n = copy(detections);
+        out.clear();
+        for (int k = 0; k < n; k += 7) {
+            addIfAbove(k, 0, cols, rows, threshold, out);
+        }
+    }
+
+    /**
+     * Saída de um lote: a coluna 0 diz a imagem de cada linha; linhas com índice fora do lote
+     * (preenchimento) são ignoradas.
+     */
+    public void decodeBatch(Mat detections, int[] cols, int[] rows, double threshold, DetectionBuffer out) {
+        int n = copy(detections);
+        out.clear();
+        for (int k = 0; k < n; k += 7) {
+            int imageId = (int) values[k];
+            if (imageId < 0 || imageId >= cols.length) continue;
+            addIfAbove(k, imageId, cols[imageId], rows[imageId], threshold, out);
+        }
+    }
+
+    // Mesmas contas da versão por elemento: float promovido a double antes de multiplicar
+    private void addIfAbove(int k, int imageId, int cols, int rows, double threshold, DetectionBuffer out) {
+        float confidence = values[k + 2];
+        if (confidence <= threshold) return;
+        out.add(imageId, (int) values[k + 1], confidence,
+                clamp((int) ((double) values[k + 3] * cols), cols),
+                clamp((int) ((double) values[k + 4] * rows), rows),
+                clamp((int) ((double) values[k + 5] * cols), cols),
+                clamp((int) ((double) values[k + 6] * rows), rows));
+    }
+
+    /** Uma única cópia nativa → Java; devolve o número de floats válidos (múltiplo de 7). */
+    private int copy(Mat detections) {
+        if (detections.depth() != CvType.CV_32F || !detections.isContinuous()) {
+            throw new IllegalArgumentException("Saída de detecção deve ser CV_32F contínua: " + detections);
+        }
+        int total = (int) (detections.total() * detections.channels());
+        if (values.length < total) values = new float[total];
+        if (total > 0) detections.get(ORIGINS[detections.dims()], values);
+        return total - total % 7;
+    }
+
+    static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+}
@@ -0,0 +1,239 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serviço de detecção com um modelo Caffe carregado uma única vez e compartilhado entre threads.
+ * <p>
+ * O prototxt e o caffemodel são lidos do disco uma vez para a memória e cada worker recebe a sua
+ * própria {@link Net} criada a partir desses bytes ({@code Net} não é thread-safe). As redes ficam
+ * numa fila: cada inferência pega uma, roda {@code setInput}/{@code forward} e a devolve, então
+ * {@link #detect(Mat)} pode ser chamado de qualquer thread e {@link #submit(Mat)} roda no pool do
+ * serviço e devolve um {@link CompletableFuture}. Cada rede leva junto o seu
+ * {@link DetectionDecoder} e {@link DetectionBuffer}, então a saída é decodificada sem alocar por
+ * detecção; {@link #detect(Mat, DetectionBuffer)} expõe esse caminho sem objetos ao chamador.
+ * <p>
+ * Com mais de um worker o paralelismo interno do OpenCV é desligado ({@code Core.setNumThreads(1)}),
+ * como no {@code HandBatchDetector}, para não disputar núcleos entre as inferências.
+ */
+public class DnnDetectorService implements AutoCloseable {
+
+    /** Uma rede com o seu decodificador e buffer de saída, emprestados juntos. */
+    private static final class Worker {
+        final Net net;
+        final DetectionDecoder decoder = new DetectionDecoder();
+        final DetectionBuffer buffer = new DetectionBuffer();
+        Mat detections = new Mat();
+
+        Worker(Net net) {
+            this.net = net;
+        }
+    }
+
+    private final ModelConfig config;
+    private final BlockingQueue<Worker> nets;
+    private final ExecutorService pool;
+    private final int workers;
+    private volatile boolean closed;
+
+    /**
+     * @param workers número de redes e de threads do pool
+     * @throws IOException se o prototxt ou o caffemodel não puderem ser lidos
+     */
+    public DnnDetectorService(ModelConfig config, int workers) throws IOException {
+        this.config = config;
+        this.workers = workers;
+        if (workers > 1) Core.setNumThreads(1);
+
+        MatOfByte proto = new MatOfByte(Files.readAllBytes(Paths.get(config.protoPath)));
+        MatOfByte model = hasWeights(config) ? new MatOfByte(Files.readAllBytes(Paths.get(config.modelPath))) : null;
+
+        nets = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; i++) {
+            Net net = model != null ? Dnn.readNetFromCaffe(proto, model) : Dnn.readNetFromCaffe(proto);
+            if (net.empty()) throw new IOException("Não foi possível carregar a rede de " + config.protoPath);
+            nets.add(new Worker(net));
+        }
+        proto.release();
+        if (model != null) model.release();
+
+        AtomicInteger ids = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "dnn-worker-" + ids.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static boolean hasWeights(ModelConfig config) {
+        return config.modelPath != null && !config.modelPath.isEmpty();
+    }
+
+    // ---------------- API ----------------
+
+    /**
+     * Enfileira a detecção de uma imagem. A imagem é copiada, então o chamador pode reaproveitar o
+     * buffer (ex.: o frame da webcam) logo depois da chamada.
+     */
+    public CompletableFuture<List<Detection>> submit(Mat image) {
+        Mat copy = image.clone();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return detect(copy);
+            } finally {
+                copy.release();
+            }
+        }, pool);
+    }
+
+    /** Lê e detecta no pool; o future falha se a imagem não puder ser carregada. */
+    public CompletableFuture<List<Detection>> submit(Path imagePath) {
+        return CompletableFuture.supplyAsync(() -> {
+            Mat image = Imgcodecs.imread(imagePath.toString());
+            try {
+                if (image.empty()) {
+                    throw new CompletionException(new IOException("Não foi possível carregar a imagem: " + imagePath));
+                }
+                return detect(image);
+            } finally {
+                image.release();
+            }
+        }, pool);
+    }
+
+    /** Detecção síncrona na thread atual, com uma das redes do pool. */
+    public List<Detection> detect(Mat image) {
+        // empresta antes de criar o blob: um borrow interrompido não deixa blob para trás
+        Worker worker = borrow();
+        try {
+            Mat blob = Dnn.blobFromImage(image, config.scaleFactor, config.inputSize, config.mean, config.swapRB, false);
+            forward(worker, blob).decode(worker.detections, image.cols(), image.rows(),
+                    config.confidenceThreshold, worker.buffer);
+            return worker.buffer.toList(0, config);
+        } finally {
+            nets.add(worker);
+        }
+    }
+
+    /**
+     * Como {@link #detect(Mat)}, mas sem criar objetos por detecção: o resultado é copiado para
+     * {@code out}, que o chamador reaproveita entre frames.
+     */
+    public void detect(Mat image, DetectionBuffer out) {
+        Worker worker = borrow();
+        try {
+            Mat blob = Dnn.blobFromImage(image, config.scaleFactor, config.inputSize, config.mean, config.swapRB, false);
+            forward(worker, blob).decode(worker.detections, image.cols(), image.rows(), config.confidenceThreshold, out);
+        } finally {
+            nets.add(worker);
+        }
+    }
+
+    /**
+     * Uma única inferência para várias imagens: um blob NCHW com {@code blobFromImages}, um
+     * {@code forward} e a saída {@code [1, 1, N*k, 7]} separada pela coluna 0 (índice da imagem no lote).
+     *
+     * @return as detecções de cada imagem, na ordem de {@code images}
+     */
+    public List<List<Detection>> detectBatch(List<Mat> images) {
+        int[] cols = new int[images.size()], rows = new int[images.size()];
+        for (int i = 0; i < images.size(); i++) {
+            cols[i] = images.get(i).cols();
+            rows[i] = images.get(i).rows();
+        }
+        Worker worker = borrow();
+        try {
+            Mat blob = Dnn.blobFromImages(images, config.scaleFactor, config.inputSize, config.mean, config.swapRB, false);
+            forward(worker, blob).decodeBatch(worker.detections, cols, rows, config.confidenceThreshold, worker.buffer);
+            List<List<Detection>> result = new ArrayList<>(images.size());
+            for (int i = 0; i < images.size(); i++) result.add(worker.buffer.toList(i, config));
+            return result;
+        } finally {
+            nets.add(worker);
+        }
+    }
+
+    /** {@link #detectBatch} no pool do serviço; as imagens não são copiadas nem liberadas. */
+    public CompletableFuture<List<List<Detection>>> submitBatch(List<Mat> images) {
+        return CompletableFuture.supplyAsync(() -> detectBatch(images), pool);
+    }
+
+    private DetectionDecoder forward(Worker worker, Mat blob) {
+        try {
+            worker.net.setInput(blob);
+            worker.detections.release();
+            worker.detections = worker.net.forward();
+        } finally {
+            blob.release();
+        }
+        return worker.decoder;
+    }
+
+    private Worker borrow() {
+        try {
+            while (true) {
+                if (closed) throw new IllegalStateException("DnnDetectorService fechado");
+                Worker worker = nets.poll(100, TimeUnit.MILLISECONDS);
+                if (worker != null) return worker;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    ModelConfig config() {
+        return config;
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    /**
+     * Espera as inferências em andamento, recolhe todas as redes e libera a saída de cada uma. A
+     * {@link Net} não tem {@code release} na API Java; sem referências ela é liberada pelo finalizer.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pool.shutdown();
+        int collected = 0;
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+            // detect síncrono de outras threads devolve a rede no finally
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (collected < workers) {
+                Worker worker = nets.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (worker == null) break;
+                worker.detections.release();
+                collected++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (collected < workers) {
+            System.out.println("⚠ DnnDetectorService fechado com " + (workers - collected) + " rede(s) ainda em uso");
+        }
+    }
+}
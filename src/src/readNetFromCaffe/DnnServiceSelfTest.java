@@ -0,0 +1,102 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Teste do {@link DnnDetectorService} sem baixar modelo nenhum: gera um prototxt mínimo, só com
+ * camadas sem pesos (Concat, Slice, Permute, Reshape), cuja saída tem o formato {@code [1, 1, N, 7]}
+ * de um SSD. Roda as mesmas imagens com uma rede na thread atual e com o pool de redes via
+ * {@code submit} e confere que os resultados são idênticos.
+ *
+ * <pre>
+ * DnnServiceSelfTest [workers] [imagens]
+ * </pre>
+ */
+public class DnnServiceSelfTest {
+    static {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+    }
+
+    // entrada 1x3x4x4 → 9 canais → 7 canais → NHWC → [1, 1, 16, 7]
+    static final String TINY_PROTOTXT = """
+            name: "TinySsdShape"
+            input: "data"
+            input_shape { dim: 1 dim: 3 dim: 4 dim: 4 }
+            layer { name: "concat" type: "Concat" bottom: "data" bottom: "data" bottom: "data" top: "concat" concat_param { axis: 1 } }
+            layer { name: "slice" type: "Slice" bottom: "concat" top: "seven" top: "rest" slice_param { axis: 1 slice_point: 7 } }
+            layer { name: "permute" type: "Permute" bottom: "seven" top: "nhwc" permute_param { order: 0 order: 2 order: 3 order: 1 } }
+            layer { name: "detection_out" type: "Reshape" bottom: "nhwc" top: "detection_out" reshape_param { shape { dim: 1 dim: 1 dim: -1 dim: 7 } } }
+            """;
+
+    public static void main(String[] args) throws IOException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        Path proto = Files.createTempFile("tiny_ssd", ".prototxt");
+        Files.writeString(proto, TINY_PROTOTXT);
+        // limiar negativo: todas as 16 "detecções" passam, o que exercita o decode por completo
+        ModelConfig config = new ModelConfig(proto.toString(), null, new Size(4, 4), 1 / 255.0,
+                new Scalar(0, 0, 0), false, -1, null);
+
+        List<Mat> images = syntheticImages(count);
+
+        List<List<Detection>> expected = new ArrayList<>();
+        long sequentialNanos;
+        try (DnnDetectorService single = new DnnDetectorService(config, 1)) {
+            long start = System.nanoTime();
+            for (Mat image : images) expected.add(single.detect(image));
+            sequentialNanos = System.nanoTime() - start;
+        }
+
+        List<List<Detection>> actual = new ArrayList<>();
+        long pooledNanos;
+        try (DnnDetectorService service = new DnnDetectorService(config, workers)) {
+            long start = System.nanoTime();
+            List<CompletableFuture<List<Detection>>> futures = new ArrayList<>();
+            for (Mat image : images) futures.add(service.submit(image));
+            for (CompletableFuture<List<Detection>> future : futures) actual.add(future.join());
+            pooledNanos = System.nanoTime() - start;
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            if (!expected.get(i).equals(actual.get(i))) mismatches++;
+        }
+        System.out.printf("%d imagens | 1 rede: %.1f img/s | %d redes: %.1f img/s%n", count,
+                count / (sequentialNanos / 1e9), workers, count / (pooledNanos / 1e9));
+        if (mismatches == 0 && expected.get(0).size() == 16) {
+            System.out.println("✅ Resultados do pool idênticos aos da execução sequencial");
+        } else {
+            System.out.println("❌ " + mismatches + " imagens com resultado diferente");
+            System.exit(1);
+        }
+
+        for (Mat image : images) image.release();
+        Files.deleteIfExists(proto);
+    }
+
+    private static List<Mat> syntheticImages(int count) {
+        Random random = new Random(42);
+        List<Mat> images = new ArrayList<>();
+        byte[] pixels = new byte[32 * 32 * 3];
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(pixels);
+            Mat image = new Mat(32, 32, CvType.CV_8UC3);
+            image.put(0, 0, pixels);
+            images.add(image);
+        }
+        return images;
+    }
+}
@@ -0,0 +1,63 @@
+package readNetFromCaffe;
+
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+
+/**
+ * Arquivos de um modelo Caffe do tipo SSD e os parâmetros do {@code blobFromImage} que ele espera.
+ * A saída da rede deve ser o formato de detecção do SSD: {@code [1, 1, N, 7]} com
+ * (imagem, classe, confiança, x1, y1, x2, y2) normalizados.
+ */
+public class ModelConfig {
+    public static final String RESOURCES = "src/src/readNetFromCaffe/resources/";
+
+    static final String[] MOBILENET_CLASSES = {
+            "background", "aeroplane", "bicycle", "bird", "boat",
+            "bottle", "bus", "car", "cat", "chair", "cow",
+            "diningtable", "dog", "horse", "motorbike", "person",
+            "pottedplant", "sheep", "sofa", "train", "tvmonitor"
+    };
+
+    final String protoPath;
+    final String modelPath;      // null ou vazio: rede sem pesos (só o prototxt)
+    final Size inputSize;
+    final double scaleFactor;
+    final Scalar mean;
+    final boolean swapRB;
+    final double confidenceThreshold;
+    final String[] classNames;   // null: rótulo é o número da classe
+
+    public ModelConfig(String protoPath, String modelPath, Size inputSize, double scaleFactor, Scalar mean,
+                       boolean swapRB, double confidenceThreshold, String[] classNames) {
+        this.protoPath = protoPath;
+        this.modelPath = modelPath;
+        this.inputSize = inputSize;
+        this.scaleFactor = scaleFactor;
+        this.mean = mean;
+        this.swapRB = swapRB;
+        this.confidenceThreshold = confidenceThreshold;
+        this.classNames = classNames;
+    }
+
+    /** Detector de faces res10 300x300 usado no {@code ReadNetFromCaffeDNN}. */
+    public static ModelConfig faceDetector(String dir) {
+        return new ModelConfig(dir + "deploy.prototxt", dir + "res10_300x300_ssd_iter_140000.caffemodel",
+                new Size(300, 300), 1.0, new Scalar(104.0, 177.0, 123.0), false, 0.5, new String[]{"background", "face"});
+    }
+
+    /** MobileNet-SSD (VOC) usado no {@code ObjectDNN}. */
+    public static ModelConfig mobileNetSsd(String dir) {
+        return new ModelConfig(dir + "MobileNetSSD_deploy.prototxt", dir + "MobileNetSSD_deploy.caffemodel",
+                new Size(300, 300), 0.007843, new Scalar(127.5, 127.5, 127.5), false, 0.4, MOBILENET_CLASSES);
+    }
+
+    /** Mesma rede com outro limiar de confiança. */
+    public ModelConfig withConfidence(double threshold) {
+        return new ModelConfig(protoPath, modelPath, inputSize, scaleFactor, mean, swapRB, threshold, classNames);
+    }
+
+    String label(int classId) {
+        if (classNames != null && classId >= 0 && classId < classNames.length) return classNames[classId];
+        return String.valueOf(classId);
+    }
+}
@@ -1,23 +1,28 @@
 package readNetFromCaffe;
 
 import org.opencv.core.*;
-import org.opencv.dnn.Dnn;
-import org.opencv.dnn.Net;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.util.List;
 
 public class ReadNetFromCaffeDNN {
     public static void main(String[] args) {
         System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
 
-        String projectPath = "C:/SeuProjeto/DNN/readNetFromCaffe/"; // ajuste o caminho
-        String protoPath = projectPath + "resources/deploy.prototxt";
-        String modelPath = projectPath + "resources/res10_300x300_ssd_iter_140000.caffemodel";
+        String projectPath = "src/src/readNetFromCaffe/";
+        ModelConfig config = ModelConfig.faceDetector(projectPath + "resources/");
 
         System.out.println("Carregando rede...");
-        Net net = Dnn.readNetFromCaffe(protoPath, modelPath);
+        DnnDetectorService service;
+        try {
+            service = new DnnDetectorService(config, 1);
+        } catch (IOException e) {
+            System.out.println("Erro ao carregar a rede: " + e.getMessage());
+            return;
+        }
         System.out.println("Rede carregada com sucesso!");
 
         System.out.println("Carregando imagem...");
@@ -43,34 +48,11 @@ public class ReadNetFromCaffeDNN {
         System.out.println("Imagem carregada com sucesso!");
 
         System.out.println("Detectando faces...");
-        Mat blob = Dnn.blobFromImage(image,
-                1.0,
-                new Size(300, 300),
-                new Scalar(104.0, 177.0, 123.0),
-                false,
-                false);
-
-        net.setInput(blob);
-
-        System.out.println("Realizando forward pass...");
-        Mat detections = net.forward();
-
-        // Reshape para 2D: [N,7] para facilitar o acesso
-        Mat reshapedDetections = detections.reshape(1, (int) detections.size(2));
-
-        for (int i = 0; i < reshapedDetections.rows(); i++) {
-            double[] detection = reshapedDetections.get(i, 0);
-            double confidence = detection[2];
-
-            if (confidence > 0.5) {
-                int x1 = (int) (detection[3] * image.cols());
-                int y1 = (int) (detection[4] * image.rows());
-                int x2 = (int) (detection[5] * image.cols());
-                int y2 = (int) (detection[6] * image.rows());
+        List<Detection> detections = service.detect(image);
+        service.close();
 
-                Imgproc.rectangle(image, new Point(x1, y1), new Point(x2, y2),
-                        new Scalar(0, 255, 0), 2);
-            }
+        for (Detection detection : detections) {
+            Imgproc.rectangle(image, detection.box(), new Scalar(0, 255, 0), 2);
         }
 
         System.out.println("Faces detectadas e retângulos desenhados!");